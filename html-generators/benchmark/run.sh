@@ -76,7 +76,7 @@ echo "=== Phase 1: Training / Build Cost (one-time) ==="
 echo ""
 
 # Clean up any cached state
-rm -f html-generators/generate.aot html-generators/generate.jar
+rm -f html-generators/generate.aot html-generators/generate.aot.key html-generators/generate.jar
 find html-generators -name '__pycache__' -type d -exec rm -rf {} + 2>/dev/null || true
 
 # Python first run (populates __pycache__)
@@ -88,7 +88,7 @@ JBANG_EXPORT=$(measure jbang export fatjar --force --output "$JAR" html-generato
 echo "  JBang export (creates fat JAR):            ${JBANG_EXPORT}s"
 
 # AOT training run (creates .aot from JAR)
-AOT_TRAIN=$(measure java -XX:AOTCacheOutput="$AOT" -jar "$JAR")
+AOT_TRAIN=$(measure java -jar "$JAR" --aot-train)
 echo "  AOT training run (creates .aot):           ${AOT_TRAIN}s"
 
 echo ""
@@ -153,7 +153,7 @@ These are one-time setup costs, comparable across languages.
 |------|------|-------------|
 | Python first run | ${PY_TRAIN}s | Interprets source, creates \`__pycache__\` bytecode |
 | JBang export | ${JBANG_EXPORT}s | Compiles source + bundles dependencies into fat JAR |
-| AOT training run | ${AOT_TRAIN}s | Runs JAR once to record class loading, produces \`.aot\` cache |
+| AOT training run | ${AOT_TRAIN}s | \`--aot-train\`: runs the training workload, produces \`.aot\` cache |
 
 ## Phase 2: Steady-State Execution (avg of $STEADY_RUNS runs)
 
@@ -191,7 +191,7 @@ Clears \`__pycache__/\` and JBang cache, then measures a single run. On a local
 jbang export fatjar --force --output html-generators/generate.jar html-generators/generate.java
 
 # One-time: build the AOT cache (~21 MB, platform-specific)
-java -XX:AOTCacheOutput=html-generators/generate.aot -jar html-generators/generate.jar
+java -jar html-generators/generate.jar --aot-train
 
 # Steady-state: run with AOT cache
 java -XX:AOTCache=html-generators/generate.aot -jar html-generators/generate.jar
@@ -0,0 +1,87 @@
+#!/usr/bin/env bash
+# Chart how generator build time and peak heap grow with snippet and locale count.
+#
+# For every (snippets, locales) combination this script:
+#   1. writes a synthetic corpus with synthesize.java into a scratch tree
+#   2. runs the fat JAR inside that tree with GC logging enabled
+#   3. records wall time and peak heap (largest pre-GC heap in the GC log)
+#
+# Results are printed as CSV so they can be pasted into a spreadsheet or plotted.
+#
+# Usage:
+#   ./html-generators/benchmark/scale.sh
+#   ./html-generators/benchmark/scale.sh --sizes "1000 10000 100000" --locales "12 24" --categories 20
+#   ./html-generators/benchmark/scale.sh --csv scale.csv --keep
+
+set -euo pipefail
+cd "$(git rev-parse --show-toplevel)"
+
+ROOT="$(pwd)"
+JAR="$ROOT/html-generators/generate.jar"
+SIZES="1000 10000 100000"
+LOCALE_COUNTS="12"
+CATEGORIES=11
+COVERAGE=0.8
+WORK_DIR="${TMPDIR:-/tmp}/javaevolved-scale"
+CSV=""
+KEEP=false
+
+while [[ $# -gt 0 ]]; do
+  case "$1" in
+    --sizes)      SIZES="$2"; shift 2 ;;
+    --locales)    LOCALE_COUNTS="$2"; shift 2 ;;
+    --categories) CATEGORIES="$2"; shift 2 ;;
+    --coverage)   COVERAGE="$2"; shift 2 ;;
+    --work-dir)   WORK_DIR="$2"; shift 2 ;;
+    --csv)        CSV="$2"; shift 2 ;;
+    --keep)       KEEP=true; shift ;;
+    *) echo "Unknown option: $1" >&2; exit 2 ;;
+  esac
+done
+
+if [[ ! -f "$JAR" ]]; then
+  echo "Building fat JAR..." >&2
+  jbang export fatjar --force --output "$JAR" html-generators/generate.java > /dev/null
+fi
+
+# Largest "before" heap figure from unified GC logging lines such as
+#   [0.412s][info][gc] GC(3) Pause Young (Normal) (G1 Evacuation Pause) 96M->12M(256M) 3.101ms
+peak_heap_mb() {
+  awk 'match($0, /[0-9]+M->[0-9]+M/) {
+         split(substr($0, RSTART, RLENGTH), p, "M->");
+         if (p[1] + 0 > max) max = p[1] + 0
+       }
+       END { print max + 0 }' "$1"
+}
+
+HEADER="snippets,locales,categories,translation_files,build_seconds,peak_heap_mb"
+echo "$HEADER"
+[[ -n "$CSV" ]] && echo "$HEADER" > "$CSV"
+
+for locales in $LOCALE_COUNTS; do
+  for size in $SIZES; do
+    tree="$WORK_DIR/corpus-$size-$locales"
+    rm -rf "$tree"
+    jbang html-generators/benchmark/synthesize.java \
+      --output "$tree" --snippets "$size" --locales "$locales" \
+      --categories "$CATEGORIES" --coverage "$COVERAGE" > /dev/null
+
+    # No translations/content at all with --coverage 0 or a single locale
+    translations=0
+    if [[ -d "$tree/translations/content" ]]; then
+      translations=$(find "$tree/translations/content" -type f | wc -l | tr -d ' ')
+    fi
+    gc_log="$tree/gc.log"
+
+    TIMEFORMAT='%R'
+    seconds=$( { time (cd "$tree" && java -Xlog:gc:file="$gc_log" -jar "$JAR" > /dev/null 2>&1); } 2>&1 )
+
+    peak=$(peak_heap_mb "$gc_log")
+
+    row="$size,$locales,$CATEGORIES,$translations,$seconds,$peak"
+    echo "$row"
+    [[ -n "$CSV" ]] && echo "$row" >> "$CSV"
+
+    $KEEP || rm -rf "$tree"
+  done
+done
@@ -0,0 +1,349 @@
+///usr/bin/env jbang "$0" "$@" ; exit $?
+//JAVA 25
+//DEPS com.fasterxml.jackson.core:jackson-databind:2.18.3
+//DEPS com.fasterxml.jackson.dataformat:jackson-dataformat-yaml:2.18.3
+
+import module java.base;
+import com.fasterxml.jackson.databind.*;
+import com.fasterxml.jackson.databind.node.*;
+import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
+import com.fasterxml.jackson.dataformat.yaml.YAMLGenerator;
+
+/**
+ * Write a synthetic content corpus of configurable size into a scratch tree
+ * that generate.java can build, for charting build time and heap against
+ * snippet and locale count.
+ *
+ * Every snippet follows the field layout of content/template.json. Text fields
+ * (code, summaries, explanations, translations) and proof sources are borrowed
+ * from a randomly chosen real pattern so lengths and character mix stay realistic.
+ */
+static final String CONTENT_DIR = "content";
+static final String TRANSLATIONS_DIR = "translations";
+static final String TEMPLATES_DIR = "templates";
+static final String PROOF_DIR = "proof";
+static final String SCHEMA_FILE = "content/template.json";
+static final String CATEGORIES_FILE = "html-generators/categories.properties";
+static final String LOCALES_FILE = "html-generators/locales.properties";
+static final ObjectMapper JSON_MAPPER = new ObjectMapper();
+static final YAMLFactory YAML_FACTORY = new YAMLFactory()
+        .enable(YAMLGenerator.Feature.LITERAL_BLOCK_STYLE)
+        .disable(YAMLGenerator.Feature.MINIMIZE_QUOTES);
+static final ObjectMapper YAML_MAPPER = new ObjectMapper(YAML_FACTORY);
+static final Map<String, ObjectMapper> MAPPERS = Map.of(
+        "json", JSON_MAPPER,
+        "yaml", YAML_MAPPER,
+        "yml", YAML_MAPPER);
+
+/** Fields a translation file may carry (mirrors TRANSLATABLE_FIELDS in generate.java) */
+static final List<String> TRANSLATABLE_FIELDS = List.of(
+        "title", "oldApproach", "modernApproach", "summary", "explanation", "whyModernWins", "support");
+
+record Options(
+        int snippets,
+        int categories,
+        int locales,
+        double coverage,
+        long seed,
+        String format,
+        Path output) {
+}
+
+/** A real pattern used as the source of realistic text, plus its existing translations and proof source */
+record Donor(ObjectNode node, Map<String, ObjectNode> translations, Optional<String> proof) {
+}
+
+void main(String[] args) throws IOException {
+    var argList = List.of(args);
+    var outputPos = argList.indexOf("--output");
+    if (outputPos < 0 || outputPos + 1 >= argList.size()) {
+        System.err.println("Usage: synthesize.java --output <dir> [--snippets N] [--categories N] [--locales N]"
+                + " [--coverage 0..1] [--seed N] [--format yaml|json]");
+        System.exit(2);
+    }
+    var options = new Options(
+            intOption(argList, "--snippets", 1000),
+            intOption(argList, "--categories", 11),
+            intOption(argList, "--locales", 12),
+            Double.parseDouble(stringOption(argList, "--coverage", "0.8")),
+            Long.parseLong(stringOption(argList, "--seed", "42")),
+            stringOption(argList, "--format", "yaml"),
+            Path.of(argList.get(outputPos + 1)));
+    if (!MAPPERS.containsKey(options.format())) {
+        System.err.println("Unsupported format: " + options.format());
+        System.exit(2);
+    }
+
+    var start = System.nanoTime();
+    var schema = (ObjectNode) JSON_MAPPER.readTree(Path.of(SCHEMA_FILE).toFile());
+    var realCategories = loadProperties(Path.of(CATEGORIES_FILE));
+    var realLocales = loadProperties(Path.of(LOCALES_FILE));
+    var donors = loadDonors(realCategories, realLocales);
+    IO.println("Loaded %d donor patterns from %s".formatted(donors.size(), CONTENT_DIR));
+
+    var categories = syntheticCategories(realCategories, options.categories());
+    var locales = syntheticLocales(realLocales, options.locales());
+    writeConfig(options.output(), categories, locales);
+    copyTemplates(options.output());
+    copyStrings(options.output(), locales);
+
+    var snippets = buildSnippets(schema, donors, categories.sequencedKeySet().stream().toList(), options);
+    var written = writeSnippets(snippets, locales.sequencedKeySet().stream().toList(), realLocales, options);
+
+    IO.println("Wrote %d snippets across %d categories and %d locales (%d translation files) to %s in %d ms".formatted(
+            snippets.size(), categories.size(), locales.size(), written, options.output(),
+            (System.nanoTime() - start) / 1_000_000));
+}
+
+int intOption(List<String> args, String name, int fallback) {
+    return Integer.parseInt(stringOption(args, name, String.valueOf(fallback)));
+}
+
+String stringOption(List<String> args, String name, String fallback) {
+    var pos = args.indexOf(name);
+    return pos >= 0 && pos + 1 < args.size() ? args.get(pos + 1) : fallback;
+}
+
+SequencedMap<String, String> loadProperties(Path file) throws IOException {
+    var map = new LinkedHashMap<String, String>();
+    for (var line : Files.readAllLines(file)) {
+        line = line.strip();
+        if (line.isEmpty() || line.startsWith("#")) continue;
+        var idx = line.indexOf('=');
+        if (idx > 0) map.put(line.substring(0, idx).strip(), line.substring(idx + 1).strip());
+    }
+    return map;
+}
+
+JsonNode readAuto(Path path) throws IOException {
+    var name = path.getFileName().toString();
+    var ext = name.substring(name.lastIndexOf('.') + 1);
+    return MAPPERS.getOrDefault(ext, JSON_MAPPER).readTree(path.toFile());
+}
+
+/** Load every real pattern together with whatever translations exist for it */
+List<Donor> loadDonors(SequencedMap<String, String> categories, SequencedMap<String, String> locales) throws IOException {
+    var donors = new ArrayList<Donor>();
+    for (var cat : categories.sequencedKeySet()) {
+        var catDir = Path.of(CONTENT_DIR, cat);
+        if (!Files.isDirectory(catDir)) continue;
+        List<Path> files;
+        try (var stream = Files.list(catDir)) {
+            files = stream.filter(p -> MAPPERS.containsKey(extension(p))).sorted().toList();
+        }
+        for (var file : files) {
+            var node = (ObjectNode) readAuto(file);
+            var translations = new HashMap<String, ObjectNode>();
+            for (var locale : locales.sequencedKeySet()) {
+                var base = node.get("slug").asText();
+                for (var ext : List.of("json", "yaml", "yml")) {
+                    var p = Path.of(TRANSLATIONS_DIR, "content", locale, cat, base + "." + ext);
+                    if (Files.exists(p)) {
+                        translations.put(locale, (ObjectNode) readAuto(p));
+                        break;
+                    }
+                }
+            }
+            var proofFile = Path.of(PROOF_DIR, cat, slugToPascalCase(node.get("slug").asText()) + ".java");
+            var proof = Files.exists(proofFile) ? Optional.of(Files.readString(proofFile)) : Optional.<String>empty();
+            donors.add(new Donor(node, translations, proof));
+        }
+    }
+    if (donors.isEmpty()) throw new IOException("No content files found under " + CONTENT_DIR);
+    return donors;
+}
+
+String slugToPascalCase(String slug) {
+    return Arrays.stream(slug.split("-"))
+            .filter(w -> !w.isEmpty())
+            .map(w -> Character.toUpperCase(w.charAt(0)) + w.substring(1))
+            .collect(Collectors.joining());
+}
+
+String extension(Path p) {
+    var name = p.getFileName().toString();
+    return name.substring(name.lastIndexOf('.') + 1);
+}
+
+/** Real categories first, then numbered synthetic ones */
+SequencedMap<String, String> syntheticCategories(SequencedMap<String, String> real, int count) {
+    var map = new LinkedHashMap<String, String>();
+    for (var entry : real.entrySet()) {
+        if (map.size() == count) break;
+        map.put(entry.getKey(), entry.getValue());
+    }
+    for (int i = map.size() + 1; map.size() < count; i++) {
+        map.put("category%02d".formatted(i), "Category %d".formatted(i));
+    }
+    return map;
+}
+
+/**
+ * Real locales first, then locales from the ISO 639 "reserved for local use"
+ * range (qaa, qab, ...) so synthetic codes never collide with real ones.
+ */
+SequencedMap<String, String> syntheticLocales(SequencedMap<String, String> real, int count) {
+    var map = new LinkedHashMap<String, String>();
+    for (var entry : real.entrySet()) {
+        if (map.size() == count) break;
+        map.put(entry.getKey(), entry.getValue());
+    }
+    for (int i = 0; map.size() < count; i++) {
+        var code = "q" + (char) ('a' + i / 26 % 20) + (char) ('a' + i % 26);
+        map.put(code, "Synthetic " + code);
+    }
+    return map;
+}
+
+void writeConfig(Path root, SequencedMap<String, String> categories, SequencedMap<String, String> locales) throws IOException {
+    var dir = root.resolve("html-generators");
+    Files.createDirectories(dir);
+    Files.writeString(dir.resolve("categories.properties"), categories.entrySet().stream()
+            .map(e -> e.getKey() + "=" + e.getValue())
+            .collect(Collectors.joining("\n", "", "\n")));
+    Files.writeString(dir.resolve("locales.properties"), locales.entrySet().stream()
+            .map(e -> e.getKey() + "=" + e.getValue())
+            .collect(Collectors.joining("\n", "# format: locale=Display name  (first entry is the default/primary locale)\n", "\n")));
+}
+
+void copyTemplates(Path root) throws IOException {
+    var target = root.resolve(TEMPLATES_DIR);
+    Files.createDirectories(target);
+    try (var stream = Files.list(Path.of(TEMPLATES_DIR))) {
+        for (var file : stream.toList()) {
+            Files.copy(file, target.resolve(file.getFileName().toString()), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
+
+/** Real locales keep their own UI strings; synthetic ones reuse the English file */
+void copyStrings(Path root, SequencedMap<String, String> locales) throws IOException {
+    var source = Path.of(TRANSLATIONS_DIR, "strings");
+    var target = root.resolve(TRANSLATIONS_DIR).resolve("strings");
+    Files.createDirectories(target);
+    for (var locale : locales.sequencedKeySet()) {
+        var file = source.resolve(locale + ".yaml");
+        if (!Files.exists(file)) file = source.resolve("en.yaml");
+        Files.copy(file, target.resolve(locale + ".yaml"), StandardCopyOption.REPLACE_EXISTING);
+    }
+}
+
+/** A synthetic snippet, the donor its text came from, and its position in the corpus (numbers its title, seeds its translations) */
+record Synthetic(ObjectNode node, Donor donor, int index) {
+    String category() { return node.get("category").asText(); }
+    String slug()     { return node.get("slug").asText(); }
+    String key()      { return category() + "/" + slug(); }
+}
+
+/**
+ * Lay snippets out category-major like the real corpus, chain them with
+ * prev/next, and give each one the donor's number of related links — mostly
+ * within its own category, occasionally across categories.
+ */
+List<Synthetic> buildSnippets(ObjectNode schema, List<Donor> donors, List<String> categories, Options options) {
+    var random = new Random(options.seed());
+    var perCategory = new ArrayList<List<Integer>>();
+    categories.forEach(_ -> perCategory.add(new ArrayList<>()));
+    var assigned = new int[options.snippets()];
+    for (int i = 0; i < options.snippets(); i++) {
+        assigned[i] = i % categories.size();
+    }
+    Arrays.sort(assigned);
+    var snippets = new ArrayList<Synthetic>(options.snippets());
+    for (int i = 0; i < options.snippets(); i++) {
+        var donor = donors.get(random.nextInt(donors.size()));
+        var category = categories.get(assigned[i]);
+        var node = JSON_MAPPER.createObjectNode();
+        var slug = "%s-%d".formatted(donor.node().get("slug").asText(), i + 1);
+        for (var field : (Iterable<String>) schema::fieldNames) {
+            switch (field) {
+                case "id" -> node.put("id", i + 1);
+                case "slug" -> node.put("slug", slug);
+                case "title" -> node.put("title", "%s #%d".formatted(donor.node().get("title").asText(), i + 1));
+                case "category" -> node.put("category", category);
+                case "prev", "next", "related" -> node.putNull(field);
+                default -> node.set(field, donor.node().has(field)
+                        ? donor.node().get(field).deepCopy()
+                        : schema.get(field).deepCopy());
+            }
+        }
+        perCategory.get(assigned[i]).add(i);
+        snippets.add(new Synthetic(node, donor, i));
+    }
+
+    for (int i = 0; i < snippets.size(); i++) {
+        var node = snippets.get(i).node();
+        if (i > 0) node.put("prev", snippets.get(i - 1).key());
+        if (i + 1 < snippets.size()) node.put("next", snippets.get(i + 1).key());
+
+        var wanted = Math.min(snippets.get(i).donor().node().path("related").size(), snippets.size() - 1);
+        var sameCategory = perCategory.get(assigned[i]);
+        var related = new LinkedHashSet<String>();
+        for (int attempt = 0; related.size() < wanted && attempt < wanted * 10; attempt++) {
+            var pool = random.nextDouble() < 0.8 && sameCategory.size() > 1 ? sameCategory : null;
+            var target = pool != null ? pool.get(random.nextInt(pool.size())) : random.nextInt(snippets.size());
+            if (target != i) related.add(snippets.get(target).key());
+        }
+        var array = node.putArray("related");
+        related.forEach(array::add);
+    }
+    return snippets;
+}
+
+/**
+ * Write the English content files and, for each non-English locale, a
+ * translation overlay for roughly {@code coverage} of the snippets. Text comes
+ * from the donor's translation in the same locale when it exists, otherwise
+ * from a real locale chosen by position so non-Latin scripts stay represented.
+ */
+long writeSnippets(List<Synthetic> snippets, List<String> locales,
+                   SequencedMap<String, String> realLocales, Options options) {
+    var root = options.output();
+    var mapper = MAPPERS.get(options.format());
+    var translatedLocales = realLocales.sequencedKeySet().stream().filter(l -> !l.equals("en")).toList();
+    var written = new LongAdder();
+    snippets.parallelStream().forEach(s -> {
+        try {
+            var catDir = root.resolve(CONTENT_DIR).resolve(s.category());
+            Files.createDirectories(catDir);
+            Files.writeString(catDir.resolve(s.slug() + "." + options.format()), mapper.writeValueAsString(s.node()));
+            if (s.donor().proof().isPresent()) {
+                var proofDir = root.resolve(PROOF_DIR).resolve(s.category());
+                Files.createDirectories(proofDir);
+                var donorSlug = s.donor().node().get("slug").asText();
+                var donorSource = "content/%s/%s.".formatted(s.donor().node().get("category").asText(), donorSlug);
+                Files.writeString(proofDir.resolve(slugToPascalCase(s.slug()) + ".java"), s.donor().proof().get()
+                        .replace("/// Proof: " + donorSlug, "/// Proof: " + s.slug())
+                        .replace(donorSource, "content/%s/%s.".formatted(s.category(), s.slug())));
+            }
+
+            var random = new Random(options.seed() * 31 + s.index());
+            for (int l = 0; l < locales.size(); l++) {
+                var locale = locales.get(l);
+                if (locale.equals("en") || random.nextDouble() >= options.coverage()) continue;
+                var donorLocale = s.donor().translations().containsKey(locale) || translatedLocales.isEmpty()
+                        ? locale
+                        : translatedLocales.get(l % translatedLocales.size());
+                var source = s.donor().translations().getOrDefault(donorLocale, s.donor().node());
+                var overlay = JSON_MAPPER.createObjectNode();
+                for (var field : TRANSLATABLE_FIELDS) {
+                    if (!source.has(field)) continue;
+                    if (field.equals("support")) {
+                        overlay.putObject("support").set("description", source.get("support").get("description"));
+                    } else if (field.equals("title")) {
+                        overlay.put("title", "%s #%d".formatted(source.get("title").asText(), s.index() + 1));
+                    } else {
+                        overlay.set(field, source.get(field));
+                    }
+                }
+                var dir = root.resolve(TRANSLATIONS_DIR).resolve("content").resolve(locale).resolve(s.category());
+                Files.createDirectories(dir);
+                Files.writeString(dir.resolve(s.slug() + "." + options.format()), mapper.writeValueAsString(overlay));
+                written.increment();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write " + s.key(), e);
+        }
+    });
+    return written.sum();
+}
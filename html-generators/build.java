@@ -0,0 +1,39 @@
+///usr/bin/env jbang "$0" "$@" ; exit $?
+//JAVA 25
+
+import module java.base;
+
+/**
+ * Thin client for a running `generate.java --daemon`. Sends one build command
+ * over the daemon's Unix-domain socket and prints the reply: per-locale
+ * timings, the site files that changed, and a final "ok" or "error" line.
+ *
+ *   jbang html-generators/build.java                      # full build
+ *   jbang html-generators/build.java locale de
+ *   jbang html-generators/build.java slug stream-tolist
+ *   jbang html-generators/build.java stop
+ *
+ * The exit code is non-zero if the build failed or no daemon is running.
+ */
+static final Path SOCKET = Path.of("html-generators", ".cache", "generate.sock");
+
+void main(String[] args) throws IOException {
+    var command = args.length == 0 ? "full" : String.join(" ", args);
+    if (!Files.exists(SOCKET)) {
+        System.err.println("No daemon listening on " + SOCKET + ". Start one with: jbang html-generators/generate.java --daemon");
+        System.exit(2);
+    }
+    String last = null;
+    try (var channel = SocketChannel.open(UnixDomainSocketAddress.of(SOCKET))) {
+        channel.write(StandardCharsets.UTF_8.encode(command + "\n"));
+        var reader = new BufferedReader(Channels.newReader(channel, StandardCharsets.UTF_8));
+        for (var line = reader.readLine(); line != null; line = reader.readLine()) {
+            IO.println(line);
+            last = line;
+        }
+    } catch (ConnectException e) {
+        System.err.println("No daemon listening on " + SOCKET + ": " + e.getMessage());
+        System.exit(2);
+    }
+    if (last == null || !last.startsWith("ok")) System.exit(1);
+}
@@ -8,10 +8,17 @@ import com.fasterxml.jackson.databind.*;
 import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
 import com.fasterxml.jackson.dataformat.yaml.YAMLGenerator;
 
-static final String BASE_URL = "https://javaevolved.github.io";
+/**
+ * Convert content and translation files to YAML and verify that every file
+ * survives a JSON/YAML → YAML → JSON round trip unchanged.
+ *
+ * Files are processed in parallel. A hash cache skips files whose source has
+ * not changed since they were last converted and verified. Results are
+ * reported in one summary, and the exit code is non-zero if any file fails.
+ */
 static final String CONTENT_DIR = "content";
-static final String SITE_DIR = "site";
-static final Pattern TOKEN = Pattern.compile("\\{\\{(\\w+)}}");
+static final String TRANSLATIONS_CONTENT_DIR = "translations/content";
+static final Path CACHE_FILE = Path.of("html-generators", ".cache", "convert.txt");
 static final ObjectMapper JSON_MAPPER = new ObjectMapper();
 static final YAMLFactory YAML_FACTORY = new YAMLFactory()
         .enable(YAMLGenerator.Feature.LITERAL_BLOCK_STYLE)
@@ -23,80 +30,164 @@ static final Map<String, ObjectMapper> MAPPERS = Map.of(
         "yml", YAML_MAPPER);
 
 record Options(
-        Path sourceDir,
+        List<Path> sourceDirs,
         Path targetDir,
-        boolean verbose) {
+        boolean verbose,
+        boolean useCache) {
+}
+
+enum Status { CONVERTED, VERIFIED, CACHED, MISMATCH, ERROR }
+
+record Result(Path source, Status status, long nanos, String hash, String message) {
+    boolean failed() { return status == Status.MISMATCH || status == Status.ERROR; }
 }
 
 void main(String[] args) throws IOException {
     var argList = List.of(args);
     int outputDirPos = Math.max(argList.lastIndexOf("--output-directory"), argList.lastIndexOf("-od"));
-    convertAndCheckAllSnippets(new Options(
-            Path.of(CONTENT_DIR),
+    var results = convertAndCheckAllSnippets(new Options(
+            List.of(Path.of(CONTENT_DIR), Path.of(TRANSLATIONS_CONTENT_DIR)),
             outputDirPos >= 0 ? Path.of(argList.get(outputDirPos + 1)) : null,
-            argList.contains("--verbose") || argList.contains("-v")));
+            argList.contains("--verbose") || argList.contains("-v"),
+            !argList.contains("--no-cache")));
+    if (results.stream().anyMatch(Result::failed)) System.exit(1);
 }
 
-void convertAndCheckAllSnippets(Options options) throws IOException {
-    try (var categories = Files.newDirectoryStream(options.sourceDir, "*")) {
-        categories.forEach(categoryPath -> {
-            if (Files.isDirectory(categoryPath)) {
-                System.out.println("Processing category folder: " + categoryPath);
-                try (var categoryFiles = Files.newDirectoryStream(categoryPath, "*.json")) {
-                    categoryFiles.forEach(jsonFile -> {
-                        Path yamlPath = null;
-                        if (options.targetDir != null) {
-                            var yamlPathString = jsonFile.toString()
-                                    .replace(options.sourceDir.toString(), options.targetDir.toString())
-                                    .replaceFirst("\\.json$", ".yaml");
-                            yamlPath = Path.of(yamlPathString);
-                            try {
-                                Files.createDirectories(yamlPath.getParent());
-                            } catch (IOException e) {
-                                System.err
-                                        .println("Error creating directories for " + yamlPath + ": " + e.getMessage());
-                                yamlPath = null;
-                            }
-                        }
-                        convertAndCheckSnippet(jsonFile, yamlPath, options);
-                    });
-                } catch (Exception e) {
-                    System.err
-                            .println("Error processing category " + categoryPath.getFileName() + ": " + e.getMessage());
-                }
-            }
-        });
+List<Result> convertAndCheckAllSnippets(Options options) throws IOException {
+    var start = System.nanoTime();
+    var files = new ArrayList<Path>();
+    for (var dir : options.sourceDirs()) {
+        if (!Files.isDirectory(dir)) continue;
+        try (var walk = Files.walk(dir)) {
+            // Top-level files (e.g. content/template.json) are not snippets
+            walk.filter(p -> Files.isRegularFile(p) && p.getNameCount() > dir.getNameCount() + 1)
+                    .filter(p -> MAPPERS.containsKey(extension(p)))
+                    .forEach(files::add);
+        }
     }
+    files.sort(Path::compareTo);
+
+    var cache = options.useCache() ? readCache() : Map.<String, String>of();
+    var results = files.parallelStream()
+            .map(file -> convertAndCheckSnippet(file, targetPath(file, options), cache.get(key(file))))
+            .toList();
+    if (options.useCache()) writeCache(results);
+
+    report(results, options, System.nanoTime() - start);
+    return results;
+}
+
+String extension(Path p) {
+    var name = p.getFileName().toString();
+    return name.substring(name.lastIndexOf('.') + 1);
 }
 
-void convertAndCheckSnippet(Path jsonPath, Path yamlPath, Options options) {
+String key(Path p) {
+    return p.toString().replace('\\', '/');
+}
+
+/** The YAML file a source converts to: same repo-relative path under the target directory */
+Path targetPath(Path source, Options options) {
+    if (options.targetDir() == null) return null;
+    var relative = source.toString().replaceFirst("\\.(json|ya?ml)$", ".yaml");
+    return options.targetDir().resolve(relative);
+}
+
+Result convertAndCheckSnippet(Path source, Path yamlPath, String cachedHash) {
+    var start = System.nanoTime();
     try {
-        var json = JSON_MAPPER.readTree(jsonPath.toFile());
+        var bytes = Files.readAllBytes(source);
+        var hash = HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+        if (hash.equals(cachedHash) && (yamlPath == null || Files.exists(yamlPath))) {
+            return new Result(source, Status.CACHED, System.nanoTime() - start, hash, null);
+        }
+
+        var json = MAPPERS.get(extension(source)).readTree(bytes);
         var yaml = YAML_MAPPER.writeValueAsString(json);
         var yamlJson = YAML_MAPPER.readTree(yaml);
         if (!json.equals(yamlJson)) {
-            if (options.verbose) {
-                System.err.println("Mismatch in file: " + jsonPath.getFileName());
-                System.err.println(" - original JSON:");
-                System.err.println(json.toPrettyString());
-                System.err.println(" - generated YAML:");
-                System.err.println(yaml);
-                System.err.println(" - YAML converted back to JSON:");
-                System.err.println(yamlJson.toPrettyString());
-            }
-        } else {
-            if (options.verbose) {
-                System.out.println(" - successfully converted and verified: " + jsonPath.getFileName());
-            }
-            if (yamlPath != null) {
-                Files.writeString(yamlPath, yaml);
-                if (options.verbose) {
-                    System.out.println("   - YAML written to: " + yamlPath);
-                }
-            }
+            var detail = """
+                    - original:
+                    %s
+                    - generated YAML:
+                    %s
+                    - YAML converted back to JSON:
+                    %s""".formatted(json.toPrettyString(), yaml, yamlJson.toPrettyString());
+            return new Result(source, Status.MISMATCH, System.nanoTime() - start, hash, detail);
+        }
+        if (yamlPath == null) {
+            return new Result(source, Status.VERIFIED, System.nanoTime() - start, hash, null);
         }
+        Files.createDirectories(yamlPath.getParent());
+        Files.writeString(yamlPath, yaml);
+        return new Result(source, Status.CONVERTED, System.nanoTime() - start, hash, "written to " + yamlPath);
     } catch (Exception e) {
-        System.err.println(" ! error processing file " + jsonPath.getFileName() + ": " + e.getMessage());
-        e.printStackTrace();
+        return new Result(source, Status.ERROR, System.nanoTime() - start, null,
+                e.getClass().getSimpleName() + ": " + e.getMessage());
+    }
+}
+
+void report(List<Result> results, Options options, long totalNanos) {
+    if (options.verbose()) {
+        for (var r : results) {
+            System.out.printf(" %-9s %8.2f ms  %s%s%n", r.status(), r.nanos() / 1e6, r.source(),
+                    r.status() == Status.CONVERTED ? " (" + r.message() + ")" : "");
+        }
+    }
+
+    var slowest = results.stream()
+            .filter(r -> r.status() != Status.CACHED)
+            .sorted(Comparator.comparingLong(Result::nanos).reversed())
+            .limit(5)
+            .toList();
+    if (!slowest.isEmpty()) {
+        System.out.println("Slowest files:");
+        slowest.forEach(r -> System.out.printf("  %8.2f ms  %s%n", r.nanos() / 1e6, r.source()));
+    }
+
+    var failures = results.stream().filter(Result::failed).toList();
+    if (!failures.isEmpty()) {
+        System.err.println("Failures:");
+        for (var r : failures) {
+            var message = options.verbose() ? r.message()
+                    : r.status() == Status.MISMATCH ? "YAML round trip differs from source (run with --verbose for details)"
+                    : r.message().lines().findFirst().orElse("");
+            System.err.printf(" ! %s %s: %s%n", r.status(), r.source(), message);
+        }
+    }
+
+    var counts = new EnumMap<Status, Long>(Status.class);
+    for (var s : Status.values()) counts.put(s, 0L);
+    results.forEach(r -> counts.merge(r.status(), 1L, Long::sum));
+    System.out.printf("Processed %d files in %d ms: %d converted, %d verified, %d cached, %d mismatched, %d failed%n",
+            results.size(), totalNanos / 1_000_000, counts.get(Status.CONVERTED), counts.get(Status.VERIFIED),
+            counts.get(Status.CACHED), counts.get(Status.MISMATCH), counts.get(Status.ERROR));
+}
+
+/** Cache lines are "<sha256> <path>" for every file that last converted and verified cleanly */
+Map<String, String> readCache() {
+    var cache = new HashMap<String, String>();
+    if (!Files.isRegularFile(CACHE_FILE)) return cache;
+    try {
+        for (var line : Files.readAllLines(CACHE_FILE)) {
+            var idx = line.indexOf(' ');
+            if (idx > 0) cache.put(line.substring(idx + 1), line.substring(0, idx));
+        }
+    } catch (IOException e) {
+        System.err.println("Ignoring unreadable cache " + CACHE_FILE + ": " + e.getMessage());
+    }
+    return cache;
+}
+
+void writeCache(List<Result> results) {
+    var lines = results.stream()
+            .filter(r -> !r.failed())
+            .map(r -> r.hash() + " " + key(r.source()))
+            .toList();
+    try {
+        Files.createDirectories(CACHE_FILE.getParent());
+        Files.write(CACHE_FILE, lines);
+    } catch (IOException e) {
+        System.err.println("Could not write cache " + CACHE_FILE + ": " + e.getMessage());
     }
 }
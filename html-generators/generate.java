@@ -4,29 +4,46 @@
 //DEPS com.fasterxml.jackson.dataformat:jackson-dataformat-yaml:2.18.3
 
 import module java.base;
-import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.*;
 import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.GradientPaint;
+import java.awt.Graphics2D;
+import java.awt.GraphicsEnvironment;
+import java.awt.RenderingHints;
+import java.awt.font.LineBreakMeasurer;
+import java.awt.font.TextAttribute;
+import java.awt.font.TextLayout;
+import java.awt.image.BufferedImage;
+import javax.imageio.ImageIO;
 
 /**
  * Generate HTML detail pages from JSON snippet files and slug-template.html.
- * JBang equivalent of generate.py — produces identical output.
+ * JBang equivalent of generate.py — same pages, except social cards, font subsets
+ * and the performance section, which only this generator produces.
  */
 static final String BASE_URL = "https://javaevolved.github.io";
 static final String CONTENT_DIR = "content";
 static final String SITE_DIR = "site";
 static final String TRANSLATIONS_DIR = "translations";
+static final String PROOF_DIR = "proof";
+static final Path CACHE_DIR = Path.of("html-generators", ".cache");
 static final Pattern TOKEN = Pattern.compile("\\{\\{([\\w.]+)}}");
 static final ObjectMapper JSON_MAPPER = new ObjectMapper();
 static final ObjectMapper YAML_MAPPER = new ObjectMapper(new YAMLFactory());
-static final Map<String, ObjectMapper> MAPPERS = Map.of(
-    "json", JSON_MAPPER,
-    "yaml", YAML_MAPPER,
-    "yml", YAML_MAPPER
+// ObjectReaders are immutable and thread-safe, so parallel loaders share them
+static final ObjectReader JSON_READER = JSON_MAPPER.reader();
+static final Map<String, ObjectReader> READERS = Map.of(
+    "json", JSON_READER,
+    "yaml", YAML_MAPPER.reader(),
+    "yml", YAML_MAPPER.reader()
 );
 
 static final String CATEGORIES_FILE = "html-generators/categories.properties";
 static final String LOCALES_FILE = "html-generators/locales.properties";
+static final String BUDGETS_FILE = "html-generators/budgets.properties";
 static final SequencedMap<String, String> CATEGORY_DISPLAY = loadCategoryDisplay();
 static final SequencedMap<String, String> LOCALES = loadLocales();
 
@@ -77,234 +94,2534 @@ static Map<String, String> flattenJson(JsonNode node, String prefix) {
 }
 
 /** Find a file by base path, trying .json, .yaml, .yml extensions */
-static Optional<Path> findWithExtensions(Path dir, String baseName) {
+static Optional<FileIndex.Entry> findWithExtensions(FileIndex files, Path dir, String baseName) {
     for (var ext : List.of("json", "yaml", "yml")) {
-        var p = dir.resolve(baseName + "." + ext);
-        if (Files.exists(p)) return Optional.of(p);
+        var entry = files.get(dir.resolve(baseName + "." + ext));
+        if (entry != null) return Optional.of(entry);
     }
     return Optional.empty();
 }
 
+/**
+ * Immutable snapshot of every file under content/, translations/ and proof/,
+ * with sizes and mtimes, taken by one parallel walk at startup. Lookups during
+ * rendering are map reads instead of filesystem calls, which are slow on
+ * network-mounted CI workspaces and Windows runners.
+ */
+record FileIndex(Map<String, Entry> files, Map<String, List<Entry>> dirs) {
+
+    record Entry(Path path, long size, long mtime) {}
+
+    static FileIndex scan(String... roots) throws IOException {
+        // One task per top-level subdirectory (content/<category>, translations/content, proof/<category>, ...)
+        var tasks = new ArrayList<Path>();
+        var entries = new ArrayList<Entry>();
+        for (var root : roots) {
+            var dir = Path.of(root);
+            if (!Files.isDirectory(dir)) continue;
+            try (var children = Files.newDirectoryStream(dir)) {
+                for (var child : children) {
+                    var attrs = Files.readAttributes(child, BasicFileAttributes.class);
+                    if (attrs.isDirectory()) tasks.add(child);
+                    else if (attrs.isRegularFile()) entries.add(entry(child, attrs));
+                }
+            }
+        }
+        entries.addAll(tasks.parallelStream().flatMap(dir -> walk(dir).stream()).toList());
+
+        var files = new HashMap<String, Entry>(entries.size() * 2);
+        var dirs = new HashMap<String, List<Entry>>();
+        entries.sort(Comparator.comparing(Entry::path));
+        for (var entry : entries) {
+            files.put(key(entry.path()), entry);
+            dirs.computeIfAbsent(key(entry.path().getParent()), k -> new ArrayList<>()).add(entry);
+        }
+        dirs.replaceAll((dir, list) -> List.copyOf(list));
+        return new FileIndex(Map.copyOf(files), Map.copyOf(dirs));
+    }
+
+    static List<Entry> walk(Path dir) {
+        var entries = new ArrayList<Entry>();
+        try {
+            Files.walkFileTree(dir, new SimpleFileVisitor<>() {
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                    if (attrs.isRegularFile()) entries.add(entry(file, attrs));
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return entries;
+    }
+
+    static Entry entry(Path path, BasicFileAttributes attrs) {
+        return new Entry(path, attrs.size(), attrs.lastModifiedTime().toMillis());
+    }
+
+    static String key(Path path) {
+        return path.toString().replace('\\', '/');
+    }
+
+    /** The file at a relative path such as content/lang/records.yaml, or null */
+    Entry get(Path path) {
+        return files.get(key(path));
+    }
+
+    boolean contains(Path path) {
+        return files.containsKey(key(path));
+    }
+
+    /** Files directly inside a directory, sorted by path */
+    List<Entry> list(Path dir) {
+        return dirs.getOrDefault(key(dir), List.of());
+    }
+}
+
 /** Read a file using the appropriate mapper based on its extension */
 static JsonNode readAuto(Path path) throws IOException {
+    return readAuto(path, Files.readAllBytes(path));
+}
+
+/** Parse already-read file contents using the mapper for the file's extension */
+static JsonNode readAuto(Path path, byte[] bytes) throws IOException {
     var name = path.getFileName().toString();
     var ext = name.substring(name.lastIndexOf('.') + 1);
-    return MAPPERS.getOrDefault(ext, JSON_MAPPER).readTree(path.toFile());
+    return READERS.getOrDefault(ext, JSON_READER).readTree(bytes);
+}
+
+/** Load UI strings for a locale, falling back to en.json for missing keys */
+static Map<String, String> loadStrings(String locale, CorpusCache cache, FileIndex files) throws IOException {
+    var enFile = findWithExtensions(files, Path.of(TRANSLATIONS_DIR, "strings"), "en")
+            .orElseThrow(() -> new IOException("No English strings file found"));
+    var enStrings = cache.load(enFile, CorpusCache.Kind.STRINGS,
+            bytes -> flattenJson(readAuto(enFile.path(), bytes), ""));
+
+    if (locale.equals("en")) return enStrings;
+
+    var localeFile = findWithExtensions(files, Path.of(TRANSLATIONS_DIR, "strings"), locale);
+    if (localeFile.isEmpty()) {
+        IO.println("[WARN] strings/%s.{json,yaml,yml} not found — using all English strings".formatted(locale));
+        return enStrings;
+    }
+
+    var localeStrings = cache.load(localeFile.get(), CorpusCache.Kind.STRINGS,
+            bytes -> flattenJson(readAuto(localeFile.get().path(), bytes), ""));
+    var merged = new LinkedHashMap<>(enStrings);
+    for (var entry : localeStrings.entrySet()) {
+        if (enStrings.containsKey(entry.getKey())) {
+            merged.put(entry.getKey(), entry.getValue());
+        }
+    }
+    // Warn about missing keys
+    for (var key : enStrings.keySet()) {
+        if (!localeStrings.containsKey(key)) {
+            IO.println("[WARN] %s: missing key \"%s\" — using English fallback".formatted(localeFile.get().path().getFileName(), key));
+        }
+    }
+    return merged;
+}
+
+record WhyItem(String icon, String title, String desc) {
+    static WhyItem from(JsonNode n) {
+        return new WhyItem(n.get("icon").asText().intern(), n.get("title").asText(), n.get("desc").asText());
+    }
+}
+
+record DocLink(String title, String href) {
+    static DocLink from(JsonNode n) {
+        return new DocLink(n.get("title").asText(), n.get("href").asText());
+    }
+}
+
+/**
+ * Immutable, typed view of one content file. Values shared across many
+ * snippets (category, difficulty, jdkVersion, labels, support state) are
+ * interned; list fields are plain arrays.
+ */
+record Snippet(int id, String slug, String title, String category, String difficulty, String jdkVersion,
+               String oldLabel, String modernLabel, String oldApproach, String modernApproach,
+               String oldCode, String modernCode, String summary, String explanation,
+               WhyItem[] whyModernWins, String supportState, String supportDesc,
+               String prev, String next, String[] related, DocLink[] docs) {
+
+    static Snippet from(JsonNode n) {
+        var support = n.get("support");
+        return new Snippet(
+                n.path("id").asInt(), n.get("slug").asText(), n.get("title").asText(),
+                n.get("category").asText().intern(), n.get("difficulty").asText().intern(),
+                n.get("jdkVersion").asText().intern(),
+                n.get("oldLabel").asText().intern(), n.get("modernLabel").asText().intern(),
+                n.get("oldApproach").asText(), n.get("modernApproach").asText(),
+                n.get("oldCode").asText(), n.get("modernCode").asText(),
+                n.get("summary").asText(), n.get("explanation").asText(),
+                whyItems(n.get("whyModernWins")),
+                support.get("state").asText().intern(), support.get("description").asText(),
+                textOrNull(n, "prev"), textOrNull(n, "next"),
+                texts(n.get("related")), docLinks(n.get("docs")));
+    }
+
+    static String textOrNull(JsonNode n, String field) {
+        var v = n.get(field);
+        return v != null && !v.isNull() ? v.asText() : null;
+    }
+
+    static String[] texts(JsonNode array) {
+        if (array == null) return new String[0];
+        var out = new String[array.size()];
+        for (int i = 0; i < out.length; i++) out[i] = array.get(i).asText();
+        return out;
+    }
+
+    static WhyItem[] whyItems(JsonNode array) {
+        var out = new WhyItem[array.size()];
+        for (int i = 0; i < out.length; i++) out[i] = WhyItem.from(array.get(i));
+        return out;
+    }
+
+    static DocLink[] docLinks(JsonNode array) {
+        if (array == null) return new DocLink[0];
+        var out = new DocLink[array.size()];
+        for (int i = 0; i < out.length; i++) out[i] = DocLink.from(array.get(i));
+        return out;
+    }
+
+    String key()        { return category + "/" + slug; }
+    String catDisplay() { return CATEGORY_DISPLAY.get(category); }
+
+    /** Apply a translation overlay; fields the overlay leaves null keep their English value */
+    Snippet withOverlay(Translation t) {
+        if (t == null) return this;
+        return new Snippet(id, slug, t.title() != null ? t.title() : title, category, difficulty, jdkVersion,
+                oldLabel, modernLabel,
+                t.oldApproach() != null ? t.oldApproach() : oldApproach,
+                t.modernApproach() != null ? t.modernApproach() : modernApproach,
+                oldCode, modernCode,
+                t.summary() != null ? t.summary() : summary,
+                t.explanation() != null ? t.explanation() : explanation,
+                t.whyModernWins() != null ? t.whyModernWins() : whyModernWins,
+                supportState, t.supportDesc() != null ? t.supportDesc() : supportDesc,
+                prev, next, related, docs);
+    }
+
+    /** Entry for data/snippets.json — navigation fields (prev, next, related) are omitted */
+    Map<String, Object> toJson() {
+        var map = new LinkedHashMap<String, Object>();
+        map.put("id", id);
+        map.put("slug", slug);
+        map.put("title", title);
+        map.put("category", category);
+        map.put("difficulty", difficulty);
+        map.put("jdkVersion", jdkVersion);
+        map.put("oldLabel", oldLabel);
+        map.put("modernLabel", modernLabel);
+        map.put("oldApproach", oldApproach);
+        map.put("modernApproach", modernApproach);
+        map.put("oldCode", oldCode);
+        map.put("modernCode", modernCode);
+        map.put("summary", summary);
+        map.put("explanation", explanation);
+        map.put("whyModernWins", Arrays.stream(whyModernWins)
+                .map(w -> orderedMap("icon", w.icon(), "title", w.title(), "desc", w.desc()))
+                .toList());
+        map.put("support", orderedMap("state", supportState, "description", supportDesc));
+        map.put("docs", Arrays.stream(docs)
+                .map(d -> orderedMap("title", d.title(), "href", d.href()))
+                .toList());
+        return map;
+    }
+
+    static Map<String, Object> orderedMap(String... keyValues) {
+        var map = new LinkedHashMap<String, Object>();
+        for (int i = 0; i < keyValues.length; i += 2) map.put(keyValues[i], keyValues[i + 1]);
+        return map;
+    }
+}
+
+/**
+ * The translatable fields of one translation file. Absent fields are null;
+ * only {@code support.description} is taken from a translated support block.
+ */
+record Translation(String title, String summary, String explanation, String oldApproach,
+                   String modernApproach, WhyItem[] whyModernWins, String supportDesc) {
+
+    static Translation from(JsonNode n) {
+        var support = n.get("support");
+        return new Translation(
+                Snippet.textOrNull(n, "title"), Snippet.textOrNull(n, "summary"),
+                Snippet.textOrNull(n, "explanation"), Snippet.textOrNull(n, "oldApproach"),
+                Snippet.textOrNull(n, "modernApproach"),
+                n.has("whyModernWins") ? Snippet.whyItems(n.get("whyModernWins")) : null,
+                support != null && support.isObject() ? Snippet.textOrNull(support, "description") : null);
+    }
+}
+
+/**
+ * The parts of a snippet's pages that are the same in every locale: escaped
+ * code and labels, doc links, hreflang links and URLs. Rendered once per
+ * snippet before the locale loop; proofUrl is null when the snippet has no proof.
+ */
+record SnippetFragments(String oldCode, String modernCode, String oldLabel, String modernLabel,
+                        String docLinks, String hreflangLinks, String flatUrl, String categoryDisplayJson,
+                        String proofUrl) {
+}
+
+/**
+ * Versioned binary snapshot of every parsed content, translation and UI
+ * strings file, kept in a single file and read back through a memory-mapped
+ * segment so a warm start skips YAML parsing entirely.
+ *
+ * An entry is reused when the file's size and mtime in the {@link FileIndex}
+ * are unchanged, or, when they differ (e.g. a fresh checkout), when its
+ * SHA-256 still matches. Only stale or new files are parsed again.
+ * {@link #load} may be called from several threads at once.
+ */
+static final class CorpusCache {
+    static final int MAGIC = 0x4A45_5643; // "JEVC"
+    static final int VERSION = 1;
+    static final ValueLayout.OfInt INT = ValueLayout.JAVA_INT_UNALIGNED.withOrder(ByteOrder.BIG_ENDIAN);
+    static final ValueLayout.OfLong LONG = ValueLayout.JAVA_LONG_UNALIGNED.withOrder(ByteOrder.BIG_ENDIAN);
+
+    enum Kind { SNIPPET, TRANSLATION, STRINGS }
+
+    record Entry(long size, long mtime, byte[] hash, Kind kind, Object value) {}
+
+    @FunctionalInterface
+    interface Parser<T> {
+        T parse(byte[] bytes) throws IOException;
+    }
+
+    private final Path file;
+    private final boolean enabled;
+    private final Map<String, Entry> previous;
+    private final Map<String, Entry> current = new ConcurrentHashMap<>();
+    private final AtomicInteger reused = new AtomicInteger(), rehashed = new AtomicInteger(), parsed = new AtomicInteger();
+    private volatile boolean dirty;
+
+    private CorpusCache(Path file, boolean enabled, Map<String, Entry> previous) {
+        this.file = file;
+        this.enabled = enabled;
+        this.previous = previous;
+    }
+
+    static CorpusCache open(Path file, boolean enabled) {
+        return new CorpusCache(file, enabled, enabled ? read(file) : Map.of());
+    }
+
+    /** A cache for the next build in the same process, starting from this build's entries instead of the file */
+    CorpusCache next() {
+        var entries = new HashMap<>(previous);
+        entries.putAll(current);
+        return new CorpusCache(file, enabled, enabled ? entries : Map.of());
+    }
+
+    /** Return the cached value for a file, parsing it only when it is new or has changed */
+    @SuppressWarnings("unchecked")
+    <T> T load(FileIndex.Entry file, Kind kind, Parser<T> parser) throws IOException {
+        var path = file.path();
+        var key = FileIndex.key(path);
+        var size = file.size();
+        var mtime = file.mtime();
+        var cached = previous.get(key);
+        if (cached != null && cached.kind() == kind && cached.size() == size && cached.mtime() == mtime) {
+            current.put(key, cached);
+            reused.incrementAndGet();
+            return (T) cached.value();
+        }
+        var bytes = Files.readAllBytes(path);
+        var hash = sha256(bytes);
+        dirty = true;
+        if (cached != null && cached.kind() == kind && Arrays.equals(cached.hash(), hash)) {
+            current.put(key, new Entry(size, mtime, hash, kind, cached.value()));
+            rehashed.incrementAndGet();
+            return (T) cached.value();
+        }
+        var value = parser.parse(bytes);
+        current.put(key, new Entry(size, mtime, hash, kind, value));
+        parsed.incrementAndGet();
+        return value;
+    }
+
+    /**
+     * Write the snapshot if anything changed. Entries not touched by this run
+     * (e.g. other locales during a --locale build) are kept while their file exists.
+     */
+    void save(FileIndex files) throws IOException {
+        if (!enabled) return;
+        var entries = new TreeMap<>(current);
+        for (var e : previous.entrySet()) {
+            if (entries.containsKey(e.getKey())) continue;
+            if (files.contains(Path.of(e.getKey()))) entries.put(e.getKey(), e.getValue());
+            else dirty = true;
+        }
+        if (!dirty) return;
+        Files.createDirectories(file.getParent());
+        var tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (var out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(entries.size());
+            for (var e : entries.entrySet()) {
+                var entry = e.getValue();
+                writeString(out, e.getKey());
+                out.writeLong(entry.size());
+                out.writeLong(entry.mtime());
+                out.writeInt(entry.hash().length);
+                out.write(entry.hash());
+                out.writeByte(entry.kind().ordinal());
+                switch (entry.kind()) {
+                    case SNIPPET -> writeSnippet(out, (Snippet) entry.value());
+                    case TRANSLATION -> writeTranslation(out, (Translation) entry.value());
+                    case STRINGS -> {
+                        @SuppressWarnings("unchecked")
+                        var strings = (Map<String, String>) entry.value();
+                        out.writeInt(strings.size());
+                        for (var s : strings.entrySet()) {
+                            writeString(out, s.getKey());
+                            writeString(out, s.getValue());
+                        }
+                    }
+                }
+            }
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    String summary() {
+        if (!enabled) return "Corpus cache disabled — parsed %d files".formatted(parsed.get());
+        return "Corpus cache: %d files reused, %d revalidated by hash, %d parsed".formatted(
+                reused.get(), rehashed.get(), parsed.get());
+    }
+
+    static byte[] sha256(byte[] bytes) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(bytes);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    static Map<String, Entry> read(Path file) {
+        if (!Files.isRegularFile(file)) return Map.of();
+        try (var channel = FileChannel.open(file, StandardOpenOption.READ); var arena = Arena.ofConfined()) {
+            var in = new SegmentReader(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size(), arena));
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) return Map.of();
+            var count = in.readInt();
+            var entries = new HashMap<String, Entry>(count * 2);
+            for (int i = 0; i < count; i++) {
+                var path = in.readString();
+                var size = in.readLong();
+                var mtime = in.readLong();
+                var hash = in.readBytes(in.readInt());
+                var kind = Kind.values()[in.readByte()];
+                Object value = switch (kind) {
+                    case SNIPPET -> readSnippet(in);
+                    case TRANSLATION -> readTranslation(in);
+                    case STRINGS -> {
+                        var n = in.readInt();
+                        var strings = new LinkedHashMap<String, String>(n * 2);
+                        for (int j = 0; j < n; j++) strings.put(in.readString(), in.readString());
+                        yield strings;
+                    }
+                };
+                entries.put(path, new Entry(size, mtime, hash, kind, value));
+            }
+            return entries;
+        } catch (IOException | RuntimeException e) {
+            IO.println("[WARN] Ignoring unreadable corpus cache %s: %s".formatted(file, e));
+            return Map.of();
+        }
+    }
+
+    /** Sequential big-endian reader over a mapped segment */
+    static final class SegmentReader {
+        private final MemorySegment segment;
+        private long pos;
+
+        SegmentReader(MemorySegment segment) { this.segment = segment; }
+
+        byte readByte() { return segment.get(ValueLayout.JAVA_BYTE, pos++); }
+
+        int readInt() {
+            var v = segment.get(INT, pos);
+            pos += 4;
+            return v;
+        }
+
+        long readLong() {
+            var v = segment.get(LONG, pos);
+            pos += 8;
+            return v;
+        }
+
+        byte[] readBytes(int length) {
+            var bytes = segment.asSlice(pos, length).toArray(ValueLayout.JAVA_BYTE);
+            pos += length;
+            return bytes;
+        }
+
+        String readString() {
+            var length = readInt();
+            return length < 0 ? null : new String(readBytes(length), StandardCharsets.UTF_8);
+        }
+
+        String readInterned() {
+            var s = readString();
+            return s == null ? null : s.intern();
+        }
+    }
+
+    static void writeString(DataOutputStream out, String s) throws IOException {
+        if (s == null) {
+            out.writeInt(-1);
+            return;
+        }
+        var bytes = s.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    static void writeWhyItems(DataOutputStream out, WhyItem[] items) throws IOException {
+        if (items == null) {
+            out.writeInt(-1);
+            return;
+        }
+        out.writeInt(items.length);
+        for (var w : items) {
+            writeString(out, w.icon());
+            writeString(out, w.title());
+            writeString(out, w.desc());
+        }
+    }
+
+    static WhyItem[] readWhyItems(SegmentReader in) {
+        var n = in.readInt();
+        if (n < 0) return null;
+        var items = new WhyItem[n];
+        for (int i = 0; i < n; i++) items[i] = new WhyItem(in.readInterned(), in.readString(), in.readString());
+        return items;
+    }
+
+    static void writeSnippet(DataOutputStream out, Snippet s) throws IOException {
+        out.writeInt(s.id());
+        for (var f : Arrays.asList(s.slug(), s.title(), s.category(), s.difficulty(), s.jdkVersion(),
+                s.oldLabel(), s.modernLabel(), s.oldApproach(), s.modernApproach(),
+                s.oldCode(), s.modernCode(), s.summary(), s.explanation())) {
+            writeString(out, f);
+        }
+        writeWhyItems(out, s.whyModernWins());
+        writeString(out, s.supportState());
+        writeString(out, s.supportDesc());
+        writeString(out, s.prev());
+        writeString(out, s.next());
+        out.writeInt(s.related().length);
+        for (var r : s.related()) writeString(out, r);
+        out.writeInt(s.docs().length);
+        for (var d : s.docs()) {
+            writeString(out, d.title());
+            writeString(out, d.href());
+        }
+    }
+
+    static Snippet readSnippet(SegmentReader in) {
+        var id = in.readInt();
+        var slug = in.readString();
+        var title = in.readString();
+        var category = in.readInterned();
+        var difficulty = in.readInterned();
+        var jdkVersion = in.readInterned();
+        var oldLabel = in.readInterned();
+        var modernLabel = in.readInterned();
+        var oldApproach = in.readString();
+        var modernApproach = in.readString();
+        var oldCode = in.readString();
+        var modernCode = in.readString();
+        var summary = in.readString();
+        var explanation = in.readString();
+        var why = readWhyItems(in);
+        var supportState = in.readInterned();
+        var supportDesc = in.readString();
+        var prev = in.readString();
+        var next = in.readString();
+        var related = new String[in.readInt()];
+        for (int i = 0; i < related.length; i++) related[i] = in.readString();
+        var docs = new DocLink[in.readInt()];
+        for (int i = 0; i < docs.length; i++) docs[i] = new DocLink(in.readString(), in.readString());
+        return new Snippet(id, slug, title, category, difficulty, jdkVersion, oldLabel, modernLabel,
+                oldApproach, modernApproach, oldCode, modernCode, summary, explanation,
+                why, supportState, supportDesc, prev, next, related, docs);
+    }
+
+    static void writeTranslation(DataOutputStream out, Translation t) throws IOException {
+        for (var f : Arrays.asList(t.title(), t.summary(), t.explanation(), t.oldApproach(), t.modernApproach())) {
+            writeString(out, f);
+        }
+        writeWhyItems(out, t.whyModernWins());
+        writeString(out, t.supportDesc());
+    }
+
+    static Translation readTranslation(SegmentReader in) {
+        return new Translation(in.readString(), in.readString(), in.readString(), in.readString(),
+                in.readString(), readWhyItems(in), in.readString());
+    }
+}
+
+/**
+ * The templates in templates/. The detail page and index templates, rendered
+ * once per page, also get a renderer: the replaceTokens interpreter,
+ * or with compile set, a class generated by {@link TemplateCompiler}.
+ */
+record Templates(String page, String whyCard, String relatedCard, String socialShare,
+                 String index, String indexCard, String docLink, String serviceWorker,
+                 TemplateRenderer pageRenderer, TemplateRenderer indexRenderer) {
+    static Templates load(boolean compile) throws IOException {
+        // Detail pages are written without surrounding whitespace. The template starts and ends
+        // with markup, so stripping it once is the same as stripping every page.
+        var page = Files.readString(Path.of("templates/slug-template.html")).strip();
+        var index = Files.readString(Path.of("templates/index.html"));
+        return new Templates(
+            page,
+            Files.readString(Path.of("templates/why-card.html")),
+            Files.readString(Path.of("templates/related-card.html")),
+            Files.readString(Path.of("templates/social-share.html")),
+            index,
+            Files.readString(Path.of("templates/index-card.html")),
+            Files.readString(Path.of("templates/doc-link.html")),
+            Files.readString(Path.of("templates/sw.js")),
+            renderer("page", page, compile),
+            renderer("index", index, compile));
+    }
+
+    static TemplateRenderer renderer(String name, String template, boolean compile) {
+        return compile ? TemplateCompiler.compile(name, template) : tokens -> replaceTokens(template, tokens);
+    }
+
+    Templates withPageRenderer(TemplateRenderer renderer) {
+        return new Templates(page, whyCard, relatedCard, socialShare, index, indexCard, docLink, serviceWorker,
+                renderer, indexRenderer);
+    }
+}
+
+/** Renders one template from its token values */
+@FunctionalInterface
+interface TemplateRenderer {
+    String render(Map<String, String> tokens);
+
+    /** The rendered template as UTF-8, in order, ready for a gather write; valid until this thread renders again */
+    default ByteBuffer[] renderUtf8(Map<String, String> tokens) {
+        return new ByteBuffer[] { ByteBuffer.wrap(render(tokens).getBytes(StandardCharsets.UTF_8)) };
+    }
+}
+
+/** The generated part of a compiled template: appends its literals and slot values in template order */
+interface CompiledTemplate {
+    void render(String[] slots, StringBuilder out);
+
+    void renderUtf8(String[] slots, PageBuffer out);
+}
+
+/**
+ * Reusable per-thread UTF-8 buffer for one page. Literals are pre-encoded by
+ * the {@link TemplateCompiler} and only referenced; values are encoded straight
+ * into one growing byte array, so a page is never a String and never copied.
+ * {@link #buffers} hands the parts to a gather write in page order.
+ */
+static final class PageBuffer {
+    static final ThreadLocal<PageBuffer> CURRENT = ThreadLocal.withInitial(PageBuffer::new);
+
+    private byte[] bytes = new byte[64 * 1024];
+    private int length;
+    // Part i is literals[i], or when that is null the bytes from starts[i] to ends[i]
+    private byte[][] literals = new byte[256][];
+    private int[] starts = new int[256], ends = new int[256];
+    private int parts;
+
+    static PageBuffer reset() {
+        var buffer = CURRENT.get();
+        buffer.length = 0;
+        buffer.parts = 0;
+        return buffer;
+    }
+
+    void literal(byte[] literal) {
+        addPart(literal, 0, 0);
+    }
+
+    void value(String value) {
+        var start = length;
+        // At most 3 bytes per char: a surrogate pair is 2 chars and 4 bytes
+        ensureCapacity(length + value.length() * 3);
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                bytes[length++] = (byte) c;
+            } else if (c < 0x800) {
+                bytes[length++] = (byte) (0xC0 | c >> 6);
+                bytes[length++] = (byte) (0x80 | c & 0x3F);
+            } else if (Character.isHighSurrogate(c) && i + 1 < value.length()
+                    && Character.isLowSurrogate(value.charAt(i + 1))) {
+                var cp = Character.toCodePoint(c, value.charAt(++i));
+                bytes[length++] = (byte) (0xF0 | cp >> 18);
+                bytes[length++] = (byte) (0x80 | cp >> 12 & 0x3F);
+                bytes[length++] = (byte) (0x80 | cp >> 6 & 0x3F);
+                bytes[length++] = (byte) (0x80 | cp & 0x3F);
+            } else if (Character.isSurrogate(c)) {
+                // Like String.getBytes: an unpaired surrogate becomes '?'
+                bytes[length++] = '?';
+            } else {
+                bytes[length++] = (byte) (0xE0 | c >> 12);
+                bytes[length++] = (byte) (0x80 | c >> 6 & 0x3F);
+                bytes[length++] = (byte) (0x80 | c & 0x3F);
+            }
+        }
+        if (length > start) addPart(null, start, length);
+    }
+
+    /** The page's parts in order, wrapping the literals and this buffer's array */
+    ByteBuffer[] buffers() {
+        var buffers = new ByteBuffer[parts];
+        for (int i = 0; i < parts; i++) {
+            buffers[i] = literals[i] != null
+                    ? ByteBuffer.wrap(literals[i])
+                    : ByteBuffer.wrap(bytes, starts[i], ends[i] - starts[i]);
+        }
+        return buffers;
+    }
+
+    private void addPart(byte[] literal, int start, int end) {
+        if (parts == literals.length) {
+            literals = Arrays.copyOf(literals, parts * 2);
+            starts = Arrays.copyOf(starts, parts * 2);
+            ends = Arrays.copyOf(ends, parts * 2);
+        }
+        literals[parts] = literal;
+        starts[parts] = start;
+        ends[parts++] = end;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > bytes.length) bytes = Arrays.copyOf(bytes, Math.max(capacity, bytes.length * 2));
+    }
+}
+
+/**
+ * Compiles a template into a hidden class with the ClassFile API, once per run.
+ * The class's render method is straight-line code: one String constant per
+ * literal between two tokens and one slot array read per token, all appended
+ * to a single StringBuilder, so the JIT can inline the whole page. There is no
+ * scanning for tokens at render time. renderUtf8 does the same into a
+ * {@link PageBuffer}, with each literal encoded to UTF-8 once at compile time
+ * and passed to the class as class data.
+ *
+ * Each distinct token is one slot. Its value is looked up once per render;
+ * values that contain tokens themselves (UI strings with {{snippetCount}})
+ * are expanded like the later passes of replaceTokens, and unknown
+ * tokens are kept as they are, so both backends produce the same page.
+ */
+static final class TemplateCompiler {
+    static final ClassDesc CD_STRING_BUILDER = ClassDesc.of("java.lang.StringBuilder");
+    static final ClassDesc CD_COMPILED_TEMPLATE = CompiledTemplate.class.describeConstable().orElseThrow();
+    static final MethodTypeDesc MTD_APPEND = MethodTypeDesc.of(CD_STRING_BUILDER, ConstantDescs.CD_String);
+    static final MethodTypeDesc MTD_RENDER = MethodTypeDesc.of(ConstantDescs.CD_void,
+            ConstantDescs.CD_String.arrayType(), CD_STRING_BUILDER);
+    static final ClassDesc CD_PAGE_BUFFER = PageBuffer.class.describeConstable().orElseThrow();
+    static final MethodTypeDesc MTD_RENDER_UTF8 = MethodTypeDesc.of(ConstantDescs.CD_void,
+            ConstantDescs.CD_String.arrayType(), CD_PAGE_BUFFER);
+    static final MethodTypeDesc MTD_LITERAL = MethodTypeDesc.of(ConstantDescs.CD_void, ConstantDescs.CD_byte.arrayType());
+    static final MethodTypeDesc MTD_VALUE = MethodTypeDesc.of(ConstantDescs.CD_void, ConstantDescs.CD_String);
+    // String constants are limited to 65,535 bytes of modified UTF-8, at most 3 per char
+    static final int MAX_LITERAL = 16_384;
+
+    /** A literal chunk, or with slot >= 0 a token */
+    record Part(String literal, int slot) {}
+
+    record Compiled(CompiledTemplate body, String[] slotNames, int sizeHint) implements TemplateRenderer {
+        @Override
+        public String render(Map<String, String> tokens) {
+            var out = new StringBuilder(sizeHint);
+            body.render(slots(tokens), out);
+            return out.toString();
+        }
+
+        @Override
+        public ByteBuffer[] renderUtf8(Map<String, String> tokens) {
+            var out = PageBuffer.reset();
+            body.renderUtf8(slots(tokens), out);
+            return out.buffers();
+        }
+
+        String[] slots(Map<String, String> tokens) {
+            var slots = new String[slotNames.length];
+            for (int i = 0; i < slots.length; i++) {
+                var value = tokens.get(slotNames[i]);
+                if (value == null) slots[i] = "{{" + slotNames[i] + "}}";
+                else slots[i] = value.contains("{{") ? replaceTokens(value, tokens, 2) : value;
+            }
+            return slots;
+        }
+    }
+
+    static TemplateRenderer compile(String name, String template) {
+        var slotNames = new LinkedHashMap<String, Integer>();
+        var parts = new ArrayList<Part>();
+        var m = TOKEN.matcher(template);
+        var last = 0;
+        while (m.find()) {
+            addLiteral(parts, template.substring(last, m.start()));
+            parts.add(new Part(null, slotNames.computeIfAbsent(m.group(1), k -> slotNames.size())));
+            last = m.end();
+        }
+        addLiteral(parts, template.substring(last));
+        var encoded = new ArrayList<byte[]>();
+        for (var part : parts) {
+            if (part.slot() < 0) encoded.add(part.literal().getBytes(StandardCharsets.UTF_8));
+        }
+
+        var lookup = MethodHandles.lookup();
+        var pkg = lookup.lookupClass().getPackageName();
+        var desc = ClassDesc.of((pkg.isEmpty() ? "" : pkg + ".") + "CompiledTemplate$" + name);
+        var bytes = ClassFile.of().build(desc, cb -> cb
+                .withFlags(ClassFile.ACC_FINAL | ClassFile.ACC_SYNTHETIC)
+                .withInterfaceSymbols(CD_COMPILED_TEMPLATE)
+                .withMethodBody(ConstantDescs.INIT_NAME, ConstantDescs.MTD_void, ClassFile.ACC_PUBLIC, code -> code
+                        .aload(0)
+                        .invokespecial(ConstantDescs.CD_Object, ConstantDescs.INIT_NAME, ConstantDescs.MTD_void)
+                        .return_())
+                .withMethodBody("render", MTD_RENDER, ClassFile.ACC_PUBLIC | ClassFile.ACC_FINAL, code -> {
+                    code.aload(2);
+                    for (var part : parts) {
+                        if (part.slot() < 0) code.loadConstant(part.literal());
+                        else code.aload(1).loadConstant(part.slot()).aaload();
+                        code.invokevirtual(CD_STRING_BUILDER, "append", MTD_APPEND);
+                    }
+                    code.pop().return_();
+                })
+                .withMethodBody("renderUtf8", MTD_RENDER_UTF8, ClassFile.ACC_PUBLIC | ClassFile.ACC_FINAL, code -> {
+                    var literal = 0;
+                    for (var part : parts) {
+                        code.aload(2);
+                        if (part.slot() < 0) {
+                            code.loadConstant(DynamicConstantDesc.ofNamed(ConstantDescs.BSM_CLASS_DATA_AT,
+                                    ConstantDescs.DEFAULT_NAME, ConstantDescs.CD_byte.arrayType(), literal++));
+                            code.invokevirtual(CD_PAGE_BUFFER, "literal", MTD_LITERAL);
+                        } else {
+                            code.aload(1).loadConstant(part.slot()).aaload();
+                            code.invokevirtual(CD_PAGE_BUFFER, "value", MTD_VALUE);
+                        }
+                    }
+                    code.return_();
+                }));
+        try {
+            var hidden = lookup.defineHiddenClassWithClassData(bytes, List.copyOf(encoded), true);
+            var body = (CompiledTemplate) hidden.findConstructor(hidden.lookupClass(), MethodType.methodType(void.class))
+                    .invoke();
+            return new Compiled(body, slotNames.sequencedKeySet().toArray(String[]::new), template.length() * 2);
+        } catch (Throwable e) {
+            throw new IllegalStateException("Could not compile template " + name, e);
+        }
+    }
+
+    static void addLiteral(List<Part> parts, String literal) {
+        for (int start = 0; start < literal.length(); ) {
+            var end = Math.min(start + MAX_LITERAL, literal.length());
+            // Keep surrogate pairs within one constant
+            if (end < literal.length() && Character.isHighSurrogate(literal.charAt(end - 1))) end--;
+            parts.add(new Part(literal.substring(start, end), -1));
+            start = end;
+        }
+    }
+}
+
+void main(String... args) throws IOException, InterruptedException {
+    // Social cards are drawn with AWT, which must never look for a display
+    System.setProperty("java.awt.headless", "true");
+    var argList = List.of(args);
+    if (argList.contains("--aot-train")) {
+        trainAotCache();
+        return;
+    }
+    if (argList.contains("--aot-training-run")) {
+        runTrainingWorkload();
+        return;
+    }
+    if (argList.contains("--daemon")) {
+        runDaemon(argList);
+        return;
+    }
+    if (argList.contains("--benchmark-templates")) {
+        benchmarkTemplates(argList);
+        return;
+    }
+
+    var files = FileIndex.scan(CONTENT_DIR, TRANSLATIONS_DIR, PROOF_DIR);
+    var cache = CorpusCache.open(CACHE_DIR.resolve("corpus.bin"), !argList.contains("--no-cache"));
+    var templates = Templates.load(!argList.contains("--interpreted-templates"));
+    var allSnippets = loadAllSnippets(cache, files);
+    var fragments = renderFragments(templates, allSnippets, files);
+    IO.println("Loaded %d snippets".formatted(allSnippets.size()));
+    var benchmarks = loadBenchmarks(benchmarksDir(argList));
+    var assets = assetRevisions();
+
+    // Determine which locales to build
+    List<String> localesToBuild;
+    var localePos = argList.indexOf("--locale");
+    if (localePos >= 0 && localePos + 1 < argList.size()) {
+        localesToBuild = List.of(argList.get(localePos + 1));
+    } else {
+        localesToBuild = new ArrayList<>(LOCALES.sequencedKeySet());
+    }
+    var translations = loadTranslations(localesToBuild, allSnippets, cache, files);
+
+    var sinkStart = System.nanoTime();
+    var sink = openSink(argList);
+    var ogCards = new HashSet<String>();
+    try (var output = budgetSink(sink, argList)) {
+        for (var locale : localesToBuild) {
+            ogCards.addAll(buildLocale(locale, templates, allSnippets, translations.get(locale), fragments,
+                    benchmarks, assets, cache, files, output, null));
+        }
+        var millis = (System.nanoTime() - sinkStart) / 1_000_000;
+        switch (sink) {
+            case MemorySink memory -> IO.println("Kept %d files (%,d KB) in memory in %d ms".formatted(
+                    memory.files().size(), memory.totalBytes() / 1024, millis));
+            case ZipSink zip -> IO.println("Wrote %d entries (%,d KB uncompressed) to %s in %d ms".formatted(
+                    zip.entries(), zip.totalBytes() / 1024, zip.archive(), millis));
+            default -> { }
+        }
+    }
+    cache.save(files);
+    IO.println(cache.summary());
+    if (localesToBuild.size() == LOCALES.size()) pruneOgCache(ogCards);
+
+    if (!argList.contains("--no-aot")) refreshAotCacheIfStale();
+}
+
+Path benchmarksDir(List<String> argList) {
+    var pos = argList.indexOf("--benchmarks");
+    return pos >= 0 && pos + 1 < argList.size() ? Path.of(argList.get(pos + 1)) : null;
+}
+
+static final Path DAEMON_SOCKET = CACHE_DIR.resolve("generate.sock");
+
+/**
+ * Keep a warmed generator running and build on request. Each connection to
+ * the Unix-domain socket sends one command line:
+ *
+ *   full                        every locale
+ *   locale <code>               one locale
+ *   slug <slug|category/slug>   one pattern's detail page in every locale
+ *   stop                        shut the daemon down
+ *
+ * The reply has one "time <locale> <ms>" line per locale built, one
+ * "changed <path>" line per site file written or deleted, and ends with one
+ * "ok ..." or "error ..." line. Parsed content stays in memory
+ * between builds; only files whose size or mtime changed are parsed again.
+ * Templates are loaded, and compiled, again only when a file under templates/
+ * changed, so the JIT-compiled render code of earlier builds keeps running.
+ */
+void runDaemon(List<String> argList) throws IOException {
+    if (Files.exists(DAEMON_SOCKET)) {
+        try (var probe = SocketChannel.open(UnixDomainSocketAddress.of(DAEMON_SOCKET))) {
+            IO.println("A daemon is already listening on %s".formatted(DAEMON_SOCKET));
+            return;
+        } catch (IOException e) {
+            // Left behind by a daemon that did not shut down cleanly
+            Files.delete(DAEMON_SOCKET);
+        }
+    }
+    Files.createDirectories(CACHE_DIR);
+    var cache = CorpusCache.open(CACHE_DIR.resolve("corpus.bin"), !argList.contains("--no-cache"));
+    var benchmarksDir = benchmarksDir(argList);
+    var compileTemplates = !argList.contains("--interpreted-templates");
+    Templates templates = null;
+    FileIndex templateFiles = null;
+
+    try (var server = ServerSocketChannel.open(StandardProtocolFamily.UNIX)) {
+        server.bind(UnixDomainSocketAddress.of(DAEMON_SOCKET));
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> DAEMON_SOCKET.toFile().delete()));
+        IO.println("Generator daemon listening on %s".formatted(DAEMON_SOCKET));
+        var running = true;
+        while (running) {
+            try (var client = server.accept()) {
+                var reader = new BufferedReader(Channels.newReader(client, StandardCharsets.UTF_8));
+                var writer = new PrintWriter(Channels.newWriter(client, StandardCharsets.UTF_8), false);
+                var command = Objects.requireNonNullElse(reader.readLine(), "").strip();
+                if (command.equals("stop")) {
+                    writer.println("ok stopping");
+                    running = false;
+                } else {
+                    var start = System.nanoTime();
+                    try {
+                        var scanned = FileIndex.scan("templates");
+                        if (templates == null || !scanned.equals(templateFiles)) {
+                            templates = Templates.load(compileTemplates);
+                            templateFiles = scanned;
+                        }
+                        String summary;
+                        List<String> changed;
+                        // Closing reports outputs over budget, and in fail mode fails the build
+                        try (var output = budgetSink(new DirectorySink(Path.of(SITE_DIR), true), argList)) {
+                            summary = daemonBuild(command, cache, benchmarksDir, templates, output, writer);
+                            changed = output.changed();
+                        }
+                        changed.forEach(path -> writer.println("changed " + path));
+                        writer.println("ok %s: %d files changed in %d ms".formatted(summary, changed.size(),
+                                (System.nanoTime() - start) / 1_000_000));
+                    } catch (Exception e) {
+                        // The reply's last line is the status, so keep multi-line parser messages on one line
+                        writer.println("error %s: %s".formatted(command, String.valueOf(e.getMessage()).lines()
+                                .map(String::strip).collect(Collectors.joining(" "))));
+                    }
+                    cache = cache.next();
+                }
+                writer.flush();
+                IO.println("%s → %s".formatted(command, running ? "done" : "stopping"));
+            } catch (IOException e) {
+                IO.println("[WARN] Daemon connection failed: %s".formatted(e.getMessage()));
+            }
+        }
+    } finally {
+        Files.deleteIfExists(DAEMON_SOCKET);
+    }
+}
+
+/** Run one daemon command, reporting per-locale timings, and describe what was built */
+String daemonBuild(String command, CorpusCache cache, Path benchmarksDir, Templates templates,
+                   OutputSink output, PrintWriter reply) throws IOException {
+    var parts = command.split("\\s+");
+    var files = FileIndex.scan(CONTENT_DIR, TRANSLATIONS_DIR, PROOF_DIR);
+    var allSnippets = loadAllSnippets(cache, files);
+    var fragments = renderFragments(templates, allSnippets, files);
+    var benchmarks = loadBenchmarks(benchmarksDir);
+    var assets = assetRevisions();
+    List<String> locales = new ArrayList<>(LOCALES.sequencedKeySet());
+    String onlyKey = null;
+    switch (parts[0]) {
+        case "full" -> { }
+        case "locale" -> {
+            if (parts.length < 2 || !LOCALES.containsKey(parts[1])) {
+                throw new IllegalArgumentException("unknown locale, expected one of " + LOCALES.keySet());
+            }
+            locales = List.of(parts[1]);
+        }
+        case "slug" -> {
+            var slug = parts.length < 2 ? "" : parts[1];
+            onlyKey = allSnippets.keySet().stream()
+                    .filter(key -> key.equals(slug) || key.endsWith("/" + slug))
+                    .findFirst()
+                    .orElseThrow(() -> new IllegalArgumentException("no pattern named \"" + slug + "\""));
+        }
+        default -> throw new IllegalArgumentException("unknown command, expected full, locale, slug or stop");
+    }
+    var translations = loadTranslations(locales, allSnippets, cache, files);
+    var ogCards = new HashSet<String>();
+    for (var locale : locales) {
+        var start = System.nanoTime();
+        ogCards.addAll(buildLocale(locale, templates, allSnippets, translations.get(locale), fragments, benchmarks,
+                assets, cache, files, output, onlyKey));
+        reply.println("time %s %d".formatted(locale, (System.nanoTime() - start) / 1_000_000));
+    }
+    cache.save(files);
+    if (parts[0].equals("full")) pruneOgCache(ogCards);
+    return switch (parts[0]) {
+        case "full" -> "full build of %d locales".formatted(locales.size());
+        case "locale" -> "locale " + parts[1];
+        default -> "%s in %d locales".formatted(onlyKey, locales.size());
+    };
+}
+
+static final Path GENERATOR_SOURCE = Path.of("html-generators", "generate.java");
+static final Path GENERATOR_JAR = Path.of("html-generators", "generate.jar");
+static final Path AOT_CACHE = Path.of("html-generators", "generate.aot");
+static final Path AOT_KEY = Path.of("html-generators", "generate.aot.key");
+
+/**
+ * The build an AOT cache is valid for, as stored in generate.aot.key: the JAR's
+ * content hash and the exact JDK version (a cache recorded by another build is
+ * silently ignored, even across an update release), plus the JAR's size and
+ * modification time so a later run can tell the JAR is unchanged without
+ * hashing it again.
+ */
+record AotKey(String jarHash, String jdk, long jarSize, long jarModified) {
+    static AotKey of(Path jar) throws IOException {
+        var stamp = stamp(jar);
+        return new AotKey(HexFormat.of().formatHex(CorpusCache.sha256(Files.readAllBytes(jar))),
+                Runtime.version().toString(), stamp[0], stamp[1]);
+    }
+
+    /** The recorded key, or null when the file is missing or in an older format */
+    static AotKey read(Path file) throws IOException {
+        if (!Files.exists(file)) return null;
+        var parts = Files.readString(file).strip().split(" ");
+        if (parts.length != 4) return null;
+        try {
+            return new AotKey(parts[0], parts[1], Long.parseLong(parts[2]), Long.parseLong(parts[3]));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /** Whether the JAR still has the recorded size and modification time */
+    boolean sameStamp(Path jar) throws IOException {
+        var stamp = stamp(jar);
+        return stamp[0] == jarSize && stamp[1] == jarModified;
+    }
+
+    static long[] stamp(Path jar) throws IOException {
+        return new long[] { Files.size(jar), Files.getLastModifiedTime(jar).toMillis() };
+    }
+
+    @Override
+    public String toString() {
+        return "%s %s %d %d".formatted(jarHash, jdk, jarSize, jarModified);
+    }
+}
+
+/** True when this process was launched from html-generators/generate.jar (not JBang's compiled copy) */
+boolean runningFromJar() {
+    try {
+        var location = Path.of(getClass().getProtectionDomain().getCodeSource().getLocation().toURI());
+        return Files.exists(GENERATOR_JAR) && Files.isSameFile(location, GENERATOR_JAR);
+    } catch (URISyntaxException | IOException | SecurityException e) {
+        return false;
+    }
+}
+
+/**
+ * Auto mode: after a normal run from the fat JAR, rebuild the AOT cache when it
+ * is missing or was recorded for a different JAR or JDK build, so the
+ * next launch with -XX:AOTCache gets the fast startup path. Skipped under CI
+ * (the CI environment variable), where the runner is discarded afterwards and
+ * the workflow's cache, not this run, decides which AOT cache the next build gets.
+ */
+void refreshAotCacheIfStale() throws IOException, InterruptedException {
+    if (!runningFromJar() || System.getenv("CI") != null) return;
+    var key = AotKey.read(AOT_KEY);
+    if (Files.exists(AOT_CACHE) && key != null && key.jdk().equals(Runtime.version().toString())) {
+        if (key.sameStamp(GENERATOR_JAR)) return;
+        // Touched but maybe not changed (a fresh checkout, a restored cache): hash once and re-stamp
+        var current = AotKey.of(GENERATOR_JAR);
+        if (current.jarHash().equals(key.jarHash())) {
+            Files.writeString(AOT_KEY, current + "\n");
+            return;
+        }
+    }
+    IO.println("AOT cache %s is missing or stale for this JAR/JDK — rebuilding".formatted(AOT_CACHE));
+    try {
+        recordAotCache();
+    } catch (IOException e) {
+        // The site itself was generated; a failed refresh only costs startup time next run
+        IO.println("[WARN] Could not rebuild AOT cache: %s".formatted(e.getMessage()));
+    }
+}
+
+/** --aot-train: export the fat JAR if needed, then record a fresh AOT cache for it */
+void trainAotCache() throws IOException, InterruptedException {
+    if (!runningFromJar() && (!Files.exists(GENERATOR_JAR)
+            || Files.getLastModifiedTime(GENERATOR_SOURCE).compareTo(Files.getLastModifiedTime(GENERATOR_JAR)) > 0)) {
+        var jbang = System.getProperty("os.name").startsWith("Windows") ? "jbang.cmd" : "jbang";
+        runProcess(jbang, "export", "fatjar", "--force", "--output", GENERATOR_JAR.toString(), GENERATOR_SOURCE.toString());
+    }
+    recordAotCache();
+}
+
+void recordAotCache() throws IOException, InterruptedException {
+    Files.deleteIfExists(AOT_KEY);
+    var key = AotKey.of(GENERATOR_JAR);
+    var java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+    runProcess(java, "-XX:AOTCacheOutput=" + AOT_CACHE, "-jar", GENERATOR_JAR.toString(), "--aot-training-run");
+    Files.writeString(AOT_KEY, key + "\n");
+    IO.println("Wrote %s for JAR %s on JDK %s".formatted(AOT_CACHE, key.jarHash(), key.jdk()));
+}
+
+void runProcess(String... command) throws IOException, InterruptedException {
+    var exit = new ProcessBuilder(command).inheritIO().start().waitFor();
+    if (exit != 0) throw new IOException("%s exited with %d".formatted(String.join(" ", command), exit));
+}
+
+/**
+ * Representative workload recorded into the AOT cache: every locale built from
+ * freshly parsed YAML, a second build served from the memory-mapped corpus
+ * cache, and JSON parsing of the schema and the generated search index.
+ * Everything is written to a scratch directory that is removed afterwards.
+ */
+void runTrainingWorkload() throws IOException {
+    var scratch = Files.createTempDirectory("generate-aot-training");
+    try {
+        var templates = Templates.load(true);
+        var siteDir = scratch.resolve("site");
+        var cacheFile = scratch.resolve("corpus.bin");
+        var cold = CorpusCache.open(cacheFile, true);
+        var files = FileIndex.scan(CONTENT_DIR, TRANSLATIONS_DIR, PROOF_DIR);
+        var allSnippets = loadAllSnippets(cold, files);
+        var fragments = renderFragments(templates, allSnippets, files);
+        var assets = assetRevisions();
+        var translations = loadTranslations(List.copyOf(LOCALES.sequencedKeySet()), allSnippets, cold, files);
+        for (var locale : LOCALES.sequencedKeySet()) {
+            buildLocale(locale, templates, allSnippets, translations.get(locale), fragments, Map.of(), assets,
+                    cold, files, new DirectorySink(siteDir, false), null);
+        }
+        cold.save(files);
+        var warm = CorpusCache.open(cacheFile, true);
+        var warmSnippets = loadAllSnippets(warm, files);
+        buildLocale("en", templates, warmSnippets, Map.of(), renderFragments(templates, warmSnippets, files),
+                Map.of(), assets, warm, files, new DirectorySink(siteDir, false), null);
+        readAuto(Path.of(CONTENT_DIR, "template.json"));
+        readAuto(siteDir.resolve("data").resolve("snippets.json"));
+    } finally {
+        try (var walk = Files.walk(scratch)) {
+            walk.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+    }
+}
+
+static final int TEMPLATE_BENCHMARK_WARMUP = 5;
+static final int TEMPLATE_BENCHMARK_ROUNDS = 10;
+
+/**
+ * Time the interpreted detail page template against the compiled one, each
+ * up to the UTF-8 bytes that get written. Every locale is built into memory
+ * once to record each page's tokens; both backends then render exactly those
+ * pages, and must agree on every byte.
+ */
+void benchmarkTemplates(List<String> argList) throws IOException {
+    var files = FileIndex.scan(CONTENT_DIR, TRANSLATIONS_DIR, PROOF_DIR);
+    var cache = CorpusCache.open(CACHE_DIR.resolve("corpus.bin"), !argList.contains("--no-cache"));
+    var templates = Templates.load(false);
+    var allSnippets = loadAllSnippets(cache, files);
+    var fragments = renderFragments(templates, allSnippets, files);
+    var locales = List.copyOf(LOCALES.sequencedKeySet());
+    var translations = loadTranslations(locales, allSnippets, cache, files);
+    var assets = assetRevisions();
+
+    var pages = new ArrayList<Map<String, String>>();
+    var recording = templates.withPageRenderer(tokens -> {
+        pages.add(new HashMap<>(tokens));
+        return templates.pageRenderer().render(tokens);
+    });
+    try (var output = new MemorySink()) {
+        for (var locale : locales) {
+            buildLocale(locale, recording, allSnippets, translations.get(locale), fragments, Map.of(), assets,
+                    cache, files, output, null);
+        }
+    }
+
+    var compileStart = System.nanoTime();
+    var compiled = TemplateCompiler.compile("page", templates.page());
+    var compileMicros = (System.nanoTime() - compileStart) / 1_000;
+    for (var tokens : pages) {
+        var expected = templates.pageRenderer().render(tokens);
+        var utf8 = compiled.renderUtf8(tokens);
+        var joined = ByteBuffer.allocate(OutputSink.remaining(utf8));
+        for (var part : utf8) joined.put(part);
+        if (!compiled.render(tokens).equals(expected)
+                || !new String(joined.array(), StandardCharsets.UTF_8).equals(expected)) {
+            throw new IllegalStateException("Compiled template renders %s/%s differently".formatted(
+                    tokens.get("locale"), tokens.get("slug")));
+        }
+    }
+
+    IO.println("Rendering %d pages per round, median of %d rounds after %d warm-up rounds".formatted(
+            pages.size(), TEMPLATE_BENCHMARK_ROUNDS, TEMPLATE_BENCHMARK_WARMUP));
+    // String results are encoded like OutputSink.write(String, String) does
+    var interpreted = medianRoundNanos(pages,
+            tokens -> templates.pageRenderer().render(tokens).getBytes(StandardCharsets.UTF_8).length);
+    var bytecode = medianRoundNanos(pages, tokens -> compiled.render(tokens).getBytes(StandardCharsets.UTF_8).length);
+    var utf8 = medianRoundNanos(pages, tokens -> OutputSink.remaining(compiled.renderUtf8(tokens)));
+    IO.println("  interpreted:      %,8.1f ms (%,6.1f µs per page)".formatted(
+            interpreted / 1e6, interpreted / 1e3 / pages.size()));
+    IO.println("  compiled:         %,8.1f ms (%,6.1f µs per page), compiled in %,d µs".formatted(
+            bytecode / 1e6, bytecode / 1e3 / pages.size(), compileMicros));
+    IO.println("  compiled, UTF-8:  %,8.1f ms (%,6.1f µs per page)".formatted(utf8 / 1e6, utf8 / 1e3 / pages.size()));
+    IO.println("  speed-up:         %.1fx compiled, %.1fx compiled to UTF-8".formatted(
+            (double) interpreted / bytecode, (double) interpreted / utf8));
+}
+
+long medianRoundNanos(List<Map<String, String>> pages, ToIntFunction<Map<String, String>> render) {
+    var rounds = new long[TEMPLATE_BENCHMARK_ROUNDS];
+    var bytes = 0L;
+    for (int round = -TEMPLATE_BENCHMARK_WARMUP; round < rounds.length; round++) {
+        var start = System.nanoTime();
+        for (var tokens : pages) bytes += render.applyAsInt(tokens);
+        if (round >= 0) rounds[round] = System.nanoTime() - start;
+    }
+    // Use the rendered output, so none of the rendering can be optimized away
+    if (bytes == 0) throw new IllegalStateException("Nothing rendered");
+    Arrays.sort(rounds);
+    return rounds[rounds.length / 2];
+}
+
+/**
+ * Build one locale into the output. With onlyKey (category/slug), only that
+ * snippet's detail page is rendered; snippets.json and the index are left as they are.
+ * Returns the file names of the social cards the rendered pages use.
+ */
+Set<String> buildLocale(String locale, Templates templates, SequencedMap<String, Snippet> allSnippets,
+                 Map<String, Translation> translations, Map<String, SnippetFragments> fragments,
+                 Map<String, PerfResult> benchmarks, SequencedMap<String, String> assets, CorpusCache cache,
+                 FileIndex files, OutputSink output, String onlyKey) throws IOException {
+    var isEnglish = locale.equals("en");
+    var strings = loadStrings(locale, cache, files);
+    var localeName = LOCALES.getOrDefault(locale, locale);
+    var sitePrefix = isEnglish ? "" : locale + "/";
+    // basePrefix is the relative path from a detail page back to site root
+    var basePrefix = isEnglish ? "../" : "../../";
+    var homeUrl = isEnglish ? "/" : "/%s/".formatted(locale);
+
+    IO.println("Building locale: %s (%s)".formatted(locale, localeName));
+
+    // Build locale picker HTML
+    var localePickerHtml = renderLocalePicker(locale);
+    // Build hreflang links for index
+    var indexHreflang = renderHreflangLinks("", "index");
+    // Build i18n script block
+    var i18nScript = renderI18nScript(strings, locale);
+    var perfSections = renderPerfSections(benchmarks, allSnippets, strings);
+
+    var resolvedAll = allSnippets.values().stream().map(s -> resolveSnippet(s, translations)).toList();
+    var pages = onlyKey == null ? resolvedAll : resolvedAll.stream().filter(s -> s.key().equals(onlyKey)).toList();
+    // Subsets depend on every page of the locale, also when only one page is rebuilt
+    var fonts = subsetFonts(locale, localeCodepoints(templates, strings, resolvedAll), output);
+    var ogImages = renderOgImages(pages, locale, output, sitePrefix, onlyKey == null);
+    var ogCards = ogImages.values().stream()
+            .filter(url -> !url.equals(OG_FALLBACK_URL))
+            .map(url -> url.substring(url.lastIndexOf('/') + 1))
+            .collect(Collectors.toSet());
+
+    for (var resolved : pages) {
+        var extraTokens = new LinkedHashMap<String, String>();
+        extraTokens.putAll(strings);
+        extraTokens.put("locale", locale);
+        extraTokens.put("htmlDir", locale.equals("ar") ? "rtl" : "ltr");
+        extraTokens.put("ogLocale", locale.replace("-", "_"));
+        extraTokens.put("basePrefix", basePrefix);
+        extraTokens.put("homeUrl", homeUrl);
+        extraTokens.put("localePicker", localePickerHtml);
+        extraTokens.put("hreflangLinks", fragments.get(resolved.key()).hreflangLinks());
+        extraTokens.put("i18nScript", i18nScript);
+        extraTokens.put("perfSection", perfSections.getOrDefault(resolved.key(), ""));
+        extraTokens.put("ogImage", ogImages.get(resolved.key()));
+        extraTokens.put("fontFaces", fonts.css());
+
+        var html = generateHtml(templates, resolved, allSnippets, fragments, extraTokens, locale);
+        output.write(sitePrefix + resolved.category() + "/" + resolved.slug() + ".html", html);
+    }
+    if (onlyKey != null) return ogCards;
+    IO.println("Generated %d HTML files for %s".formatted(allSnippets.size(), locale));
+
+    // Rebuild data/snippets.json
+    var snippetsList = allSnippets.values().stream()
+            .map(s -> {
+                var json = resolveSnippet(s, translations).toJson();
+                var perf = benchmarks.get(s.key());
+                if (perf != null) json.put("performance", perf.toJson());
+                return json;
+            })
+            .toList();
+
+    var dataDir = sitePrefix + "data/";
+    var prettyMapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+    var snippetsJson = prettyMapper.writeValueAsString(snippetsList) + "\n";
+    output.write(dataDir + "snippets.json", snippetsJson);
+    // Navigation is the same in every locale, so one graph at the site root serves them all
+    if (isEnglish) output.write("data/nav-graph.json", renderNavGraph(allSnippets));
+    IO.println("Rebuilt data/snippets.json for %s with %d entries".formatted(locale, snippetsList.size()));
+
+    // Generate index.html from template: the first screen of cards inline, the rest in per-category chunks
+    var cards = allSnippets.values().stream()
+            .map(s -> Map.entry(s.category(), renderIndexCard(templates.indexCard(), resolveSnippet(s, translations),
+                    fragments.get(s.key()), locale, strings)))
+            .toList();
+    var chunkUrl = isEnglish ? "/data/cards/" : "/%s/data/cards/".formatted(locale);
+    var tipCards = chunkIndexCards(cards, output, dataDir + "cards", chunkUrl);
+
+    var indexTokens = new LinkedHashMap<String, String>();
+    indexTokens.putAll(strings);
+    indexTokens.put("tipCards", tipCards);
+    indexTokens.put("snippetCount", String.valueOf(allSnippets.size()));
+    indexTokens.put("locale", locale);
+    indexTokens.put("htmlDir", locale.equals("ar") ? "rtl" : "ltr");
+    indexTokens.put("ogLocale", locale.replace("-", "_"));
+    indexTokens.put("canonicalUrl", isEnglish ? BASE_URL : BASE_URL + "/" + locale);
+    indexTokens.put("homeUrl", homeUrl);
+    indexTokens.put("indexBasePrefix", isEnglish ? "" : "../");
+    indexTokens.put("localePicker", localePickerHtml);
+    indexTokens.put("hreflangLinks", indexHreflang);
+    indexTokens.put("i18nScript", i18nScript);
+    indexTokens.put("fontFaces", fonts.css());
+    indexTokens.put("fontPreloads", fonts.preloads());
+
+    var indexHtml = templates.indexRenderer().render(indexTokens);
+    output.write(sitePrefix + "index.html", indexHtml);
+    IO.println("Generated index.html for %s with %d cards (%d inline)".formatted(
+            locale, allSnippets.size(), Math.min(allSnippets.size(), INDEX_INLINE_CARDS)));
+
+    // The service worker precaches the shared assets plus this locale's home page and search data
+    var precache = new LinkedHashMap<>(assets);
+    // The fonts the pages declare: the locale's subsets, or the full fonts without a subsetter
+    precache.putAll(fonts.files());
+    precache.put(homeUrl, revision(indexHtml));
+    precache.put(homeUrl + "data/snippets.json", revision(snippetsJson));
+    output.write(sitePrefix + "sw.js", renderServiceWorker(templates.serviceWorker(), locale, homeUrl, precache));
+    return ogCards;
+}
+
+/**
+ * Inputs of one pattern's social card; the rendered PNG is cached under their
+ * hash. Nothing locale-specific beyond the title, its direction and the font
+ * family that can draw it goes in, so locales that keep the English title
+ * share one rendering.
+ */
+record OgCard(String font, String title, String category, String jdkVersion, String oldLabel, String modernLabel,
+              boolean rtl) {
+    /** Bump when the drawing changes, so every cached card is rendered again */
+    static final String VERSION = "1";
+
+    /** Everything drawn as text, for choosing a font that has all of it */
+    static String text(Snippet s) {
+        return "java.evolved" + s.title() + s.catDisplay() + " · JDK " + s.jdkVersion() + s.oldLabel() + s.modernLabel();
+    }
+
+    String hash() {
+        var inputs = String.join("\u0000", VERSION, font, title, category, jdkVersion, oldLabel, modernLabel,
+                String.valueOf(rtl));
+        return HexFormat.of().formatHex(CorpusCache.sha256(inputs.getBytes(StandardCharsets.UTF_8))).substring(0, 16);
+    }
+}
+
+/**
+ * Font families for social cards: the logical sans-serif font, then every
+ * installed family by name. Looked up on first use, after main has made AWT
+ * headless.
+ */
+static final class OgFonts {
+    static final List<Font> FONTS = Stream.concat(Stream.of(Font.SANS_SERIF),
+            Stream.of(GraphicsEnvironment.getLocalGraphicsEnvironment().getAvailableFontFamilyNames(Locale.ROOT)))
+            .distinct().map(family -> new Font(family, Font.PLAIN, 1)).toList();
+    /** The family found for each mix of scripts, or "" when none had one; one scan per mix, not per page */
+    static final Map<Set<Character.UnicodeScript>, String> BY_SCRIPTS = new ConcurrentHashMap<>();
+
+    /** The first family with a glyph for every character of the text, or null when none has one */
+    static String forText(String text) {
+        if (FONTS.getFirst().canDisplayUpTo(text) == -1) return Font.SANS_SERIF;
+        var scripts = text.codePoints().mapToObj(Character.UnicodeScript::of).collect(Collectors.toSet());
+        var family = BY_SCRIPTS.computeIfAbsent(scripts, mix -> Objects.requireNonNullElse(scan(text), ""));
+        if (family.isEmpty()) return null;
+        // The family found for another text of the same scripts may still lack a rare character of this one
+        return new Font(family, Font.PLAIN, 1).canDisplayUpTo(text) == -1 ? family : scan(text);
+    }
+
+    static String scan(String text) {
+        return FONTS.stream().filter(font -> font.canDisplayUpTo(text) == -1).map(Font::getName).findFirst().orElse(null);
+    }
+}
+
+static final Path OG_CACHE_DIR = CACHE_DIR.resolve("og");
+static final String OG_FALLBACK_URL = BASE_URL + "/images/social-card.png";
+static final int OG_WIDTH = 1200;
+static final int OG_HEIGHT = 630;
+
+/**
+ * Write a social card for every page to [locale/]images/og/<hash>.png and
+ * return its absolute URL by category/slug. A card the output already has
+ * costs one lookup; otherwise it is copied from the render cache, or drawn
+ * when its inputs are new. Drawing runs in parallel. A page whose text no
+ * installed font can draw keeps the shared images/social-card.png rather
+ * than a card of missing-glyph boxes.
+ */
+Map<String, String> renderOgImages(List<Snippet> pages, String locale, OutputSink output, String sitePrefix,
+                                   boolean complete) throws IOException {
+    record Rendered(String key, String name, byte[] png) {}
+    var dir = sitePrefix + "images/og";
+    var drawn = new AtomicInteger();
+    var copied = new AtomicInteger();
+    List<Rendered> rendered;
+    try {
+        rendered = pages.parallelStream().map(s -> {
+            var font = OgFonts.forText(OgCard.text(s));
+            if (font == null) return new Rendered(s.key(), null, null);
+            var card = new OgCard(font, s.title(), s.catDisplay(), s.jdkVersion(), s.oldLabel(), s.modernLabel(),
+                    locale.equals("ar") && s.title().codePoints().anyMatch(c ->
+                            Character.getDirectionality(c) == Character.DIRECTIONALITY_RIGHT_TO_LEFT_ARABIC));
+            var name = card.hash() + ".png";
+            if (output.has(dir + "/" + name)) return new Rendered(s.key(), name, null);
+            try {
+                var cached = OG_CACHE_DIR.resolve(name);
+                byte[] png;
+                if (Files.isRegularFile(cached)) {
+                    png = Files.readAllBytes(cached);
+                    copied.incrementAndGet();
+                } else {
+                    png = drawOgCard(card);
+                    Files.createDirectories(OG_CACHE_DIR);
+                    var tmp = Files.createTempFile(OG_CACHE_DIR, name, ".tmp");
+                    Files.write(tmp, png);
+                    Files.move(tmp, cached, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                    drawn.incrementAndGet();
+                }
+                return new Rendered(s.key(), name, png);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Social card for " + s.key(), e);
+            }
+        }).toList();
+    } catch (UncheckedIOException e) {
+        throw e.getCause();
+    }
+    // Written in page order, not as the cards finish, so an archive comes out the same on every run
+    var names = new HashMap<String, String>();
+    var undrawable = new ArrayList<String>();
+    for (var card : rendered) {
+        if (card.name() == null) {
+            undrawable.add(card.key());
+            continue;
+        }
+        names.put(card.key(), card.name());
+        var path = dir + "/" + card.name();
+        if (card.png() != null && !output.has(path)) output.write(path, card.png());
+    }
+    // Cards of edited or removed patterns
+    if (complete) output.retain(dir, Set.copyOf(names.values()));
+    if (drawn.get() + copied.get() > 0) {
+        IO.println("Social cards for %s: %d drawn, %d from cache, %d unchanged".formatted(
+                locale, drawn.get(), copied.get(), names.size() - drawn.get() - copied.get()));
+    }
+    if (!undrawable.isEmpty()) {
+        IO.println("[WARN] No installed font can draw the social cards of %d %s pages (first: %s) — using %s"
+                .formatted(undrawable.size(), locale, undrawable.getFirst(), OG_FALLBACK_URL));
+    }
+    var urls = new HashMap<String, String>();
+    names.forEach((key, name) -> urls.put(key, "%s/%s/%s".formatted(BASE_URL, dir, name)));
+    undrawable.forEach(key -> urls.put(key, OG_FALLBACK_URL));
+    return urls;
+}
+
+/**
+ * After a build of every page in every locale, delete rendered cards that no
+ * page uses any more. The deploy workflow saves the render cache after each
+ * run, so without this every edited title would stay in it for good.
+ */
+void pruneOgCache(Set<String> used) throws IOException {
+    if (!Files.isDirectory(OG_CACHE_DIR)) return;
+    var removed = 0;
+    try (var list = Files.list(OG_CACHE_DIR)) {
+        for (var file : list.toList()) {
+            if (!used.contains(file.getFileName().toString()) && Files.deleteIfExists(file)) removed++;
+        }
+    }
+    if (removed > 0) IO.println("Removed %d unused social cards from %s".formatted(removed, OG_CACHE_DIR));
+}
+
+/** Draw a 1200×630 card in the style of images/social-card.svg */
+byte[] drawOgCard(OgCard card) throws IOException {
+    var image = new BufferedImage(OG_WIDTH, OG_HEIGHT, BufferedImage.TYPE_INT_RGB);
+    var g = image.createGraphics();
+    try {
+        g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+        g.setRenderingHint(RenderingHints.KEY_FRACTIONALMETRICS, RenderingHints.VALUE_FRACTIONALMETRICS_ON);
+        // Vertical, unlike the diagonal one in the SVG: constant rows compress to a third of the PNG size
+        g.setPaint(new GradientPaint(0, 0, new Color(0x0b0b0f), 0, OG_HEIGHT, new Color(0x18181b)));
+        g.fillRect(0, 0, OG_WIDTH, OG_HEIGHT);
+        g.setPaint(new GradientPaint(0, 0, new Color(0xf97316), OG_WIDTH, 0, new Color(0xfb923c)));
+        g.fillRect(0, 0, OG_WIDTH, 4);
+
+        var logo = new Font(card.font(), Font.PLAIN, 32);
+        g.setFont(logo);
+        g.setColor(new Color(0xa1a1aa));
+        g.drawString("java.", 80, 110);
+        var evolvedX = 80 + g.getFontMetrics().stringWidth("java.");
+        g.setFont(logo.deriveFont(Font.BOLD));
+        g.setColor(new Color(0xfb923c));
+        g.drawString("evolved", evolvedX, 110);
+
+        var meta = "%s · JDK %s".formatted(card.category(), card.jdkVersion());
+        g.setFont(new Font(card.font(), Font.PLAIN, 22));
+        g.setColor(new Color(0x71717a));
+        g.drawString(meta, 1120 - g.getFontMetrics().stringWidth(meta), 110);
+
+        drawOgTitle(g, card.font(), card.title(), card.rtl());
+
+        drawOgLabel(g, card.font(), 80, card.oldLabel(), new Color(0x1e1e22), new Color(0xa1a1aa));
+        drawOgLabel(g, card.font(), 640, card.modernLabel(), new Color(0x1a2e1a), new Color(0x4ade80));
+        g.setColor(new Color(0x71717a));
+        g.setStroke(new BasicStroke(3, BasicStroke.CAP_ROUND, BasicStroke.JOIN_ROUND));
+        g.drawLine(582, 515, 618, 515);
+        g.drawLine(606, 503, 618, 515);
+        g.drawLine(606, 527, 618, 515);
+    } finally {
+        g.dispose();
+    }
+    var png = new ByteArrayOutputStream();
+    ImageIO.write(image, "png", png);
+    return png.toByteArray();
+}
+
+/**
+ * The title at the largest size that fits three lines, centred vertically
+ * between the header and the labels. Right-to-left titles are right-aligned.
+ */
+void drawOgTitle(Graphics2D g, String font, String title, boolean rtl) {
+    List<TextLayout> lines = List.of();
+    for (var size : new int[] {72, 64, 56, 48}) {
+        var text = new AttributedString(title);
+        text.addAttribute(TextAttribute.FONT, new Font(font, Font.BOLD, size));
+        text.addAttribute(TextAttribute.RUN_DIRECTION,
+                rtl ? TextAttribute.RUN_DIRECTION_RTL : TextAttribute.RUN_DIRECTION_LTR);
+        var measurer = new LineBreakMeasurer(text.getIterator(), g.getFontRenderContext());
+        var layouts = new ArrayList<TextLayout>();
+        while (measurer.getPosition() < title.length()) layouts.add(measurer.nextLayout(1040));
+        lines = layouts;
+        if (lines.size() <= 3) break;
+    }
+    lines = lines.subList(0, Math.min(3, lines.size()));
+    var lineHeight = lines.isEmpty() ? 0 : lines.getFirst().getAscent() + lines.getFirst().getDescent() + 12;
+    var y = 150 + (280 - lineHeight * lines.size()) / 2;
+    g.setColor(new Color(0xfafafa));
+    for (var line : lines) {
+        y += line.getAscent();
+        line.draw(g, line.isLeftToRight() ? 80 : 1120 - line.getAdvance(), y);
+        y += line.getDescent() + 12;
+    }
+}
+
+void drawOgLabel(Graphics2D g, String font, int x, String label, Color fill, Color labelColor) {
+    g.setColor(fill);
+    g.fillRoundRect(x, 460, 480, 110, 24, 24);
+    g.setColor(new Color(0x27272a));
+    g.drawRoundRect(x, 460, 480, 110, 24, 24);
+    g.setFont(new Font(font, Font.BOLD, 40));
+    g.setColor(labelColor);
+    g.drawString(label, x + 32, 530);
+}
+
+/** A web font in site/assets/fonts/<file>.woff2 */
+record WebFont(String family, String file, String weight) {
+    String face(String url, String unicodeRange) {
+        return "    @font-face{font-family:'%s';font-style:normal;font-weight:%s;font-display:swap;src:url('%s') format('woff2')%s}"
+                .formatted(family, weight, url, unicodeRange == null ? "" : ";unicode-range:" + unicodeRange);
+    }
+
+    String preload(String url) {
+        return "  <link rel=\"preload\" href=\"%s\" as=\"font\" type=\"font/woff2\" crossorigin>".formatted(url);
+    }
+}
+
+static final List<WebFont> WEB_FONTS = List.of(
+        new WebFont("Inter", "inter", "100 900"),
+        new WebFont("JetBrains Mono", "jetbrains-mono", "400 700"));
+
+/**
+ * unicode-range groups that fonts are subset into, limited to scripts the
+ * fonts cover. The first group (basic Latin and punctuation, ~25 KB per font)
+ * is deliberately subset in full rather than to a locale's codepoints: every
+ * locale uses most of it, so one shared, preloaded file that stays in the
+ * browser cache across locales beats a slightly smaller file per locale. The
+ * other groups keep only the codepoints a locale uses.
+ */
+static final SequencedMap<String, String> FONT_GROUPS = fontGroups();
+
+static SequencedMap<String, String> fontGroups() {
+    var groups = new LinkedHashMap<String, String>();
+    groups.put("latin", "U+0000-00FF,U+0131,U+0152-0153,U+02BB-02BC,U+02C6,U+02DA,U+02DC,U+2000-206F,U+20AC,"
+            + "U+2122,U+2191,U+2193,U+2212,U+2215,U+FEFF,U+FFFD");
+    groups.put("latin-ext", "U+0100-024F,U+1E00-1EFF,U+20A0-20CF,U+2C60-2C7F,U+A720-A7FF");
+    groups.put("greek", "U+0370-03FF,U+1F00-1FFF");
+    groups.put("cyrillic", "U+0400-052F,U+2DE0-2DFF,U+A640-A69F");
+    groups.put("symbols", "U+2100-214F,U+2190-23FF,U+2500-27BF");
+    return groups;
+}
+
+static final Path FONT_CACHE_DIR = CACHE_DIR.resolve("fonts");
+static final AtomicBoolean FONT_SUBSET_WARNED = new AtomicBoolean();
+
+/** @font-face rules and preload links for a locale's pages, and the font files to precache by URL */
+record FontFaces(String css, String preloads, SequencedMap<String, String> files) {
+    /** The full fonts, as used when no subsetter is installed */
+    static FontFaces full() throws IOException {
+        var files = new LinkedHashMap<String, String>();
+        for (var font : WEB_FONTS) {
+            var file = Path.of(SITE_DIR, "assets", "fonts", font.file() + ".woff2");
+            if (Files.isRegularFile(file)) files.put(fullUrl(font), revision(Files.readAllBytes(file)));
+        }
+        return new FontFaces(
+                WEB_FONTS.stream().map(f -> f.face(fullUrl(f), null)).collect(Collectors.joining("\n")),
+                WEB_FONTS.stream().map(f -> f.preload(fullUrl(f))).collect(Collectors.joining("\n")),
+                files);
+    }
+
+    static String fullUrl(WebFont font) {
+        return "/assets/fonts/%s.woff2".formatted(font.file());
+    }
+}
+
+/** Every codepoint a locale's pages can show: templates, UI strings, locale and category names, and content */
+BitSet localeCodepoints(Templates templates, Map<String, String> strings, List<Snippet> pages) {
+    var codepoints = new BitSet();
+    Consumer<String> add = text -> {
+        if (text != null) text.codePoints().forEach(codepoints::set);
+    };
+    List.of(templates.page(), templates.whyCard(), templates.relatedCard(), templates.socialShare(),
+            templates.index(), templates.indexCard(), templates.docLink()).forEach(add);
+    strings.values().forEach(add);
+    LOCALES.values().forEach(add);
+    CATEGORY_DISPLAY.values().forEach(add);
+    for (var s : pages) {
+        List.of(s.title(), s.summary(), s.explanation(), s.oldApproach(), s.modernApproach(), s.oldCode(),
+                s.modernCode(), s.oldLabel(), s.modernLabel(), s.supportDesc()).forEach(add);
+        for (var why : s.whyModernWins()) {
+            add.accept(why.title());
+            add.accept(why.desc());
+        }
+        for (var doc : s.docs()) add.accept(doc.title());
+    }
+    return codepoints;
+}
+
+/**
+ * Split each web font into FONT_GROUPS subsets with pyftsubset (fonttools)
+ * and return the matching @font-face rules. The full font is only declared
+ * for the codepoints of FONT_GROUPS that no subset of this locale covers,
+ * e.g. an accented letter typed into search, so text in scripts the fonts
+ * lack (CJK, Hangul, Arabic) never downloads it. Subsets are cached by font
+ * and codepoints in .cache/fonts. They are named by content hash in one
+ * directory, so locales with the same codepoints in a group share the file.
+ * Without pyftsubset, or if it fails, the pages use the full fonts.
+ */
+FontFaces subsetFonts(String locale, BitSet codepoints, OutputSink output) throws IOException {
+    var pyftsubset = findExecutable("pyftsubset");
+    if (pyftsubset == null) {
+        if (!FONT_SUBSET_WARNED.getAndSet(true)) {
+            IO.println("[WARN] pyftsubset not found (pip install fonttools brotli): pages use the full fonts");
+        }
+        return FontFaces.full();
+    }
+    record Subset(WebFont font, boolean shared, String path, String unicodeRange, byte[] woff2) {}
+    var tasks = new ArrayList<Callable<Subset>>();
+    for (var font : WEB_FONTS) {
+        var source = Path.of(SITE_DIR, "assets", "fonts", font.file() + ".woff2");
+        for (var group : FONT_GROUPS.sequencedEntrySet()) {
+            var shared = group.getKey().equals(FONT_GROUPS.firstEntry().getKey());
+            var range = parseUnicodeRange(group.getValue());
+            if (!shared) range.and(codepoints);
+            if (range.isEmpty()) continue;
+            var unicodeRange = shared ? group.getValue() : formatUnicodeRange(range);
+            tasks.add(() -> {
+                var woff2 = subsetFont(pyftsubset, source, unicodeRange);
+                var path = "assets/fonts/subset/%s-%s.%s.woff2".formatted(font.file(), group.getKey(),
+                        revision(woff2));
+                return new Subset(font, shared, path, unicodeRange, woff2);
+            });
+        }
+    }
+    var subsets = new ArrayList<Subset>();
+    try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+        for (var future : executor.invokeAll(tasks)) subsets.add(future.get());
+    } catch (ExecutionException e) {
+        IO.println("[WARN] Font subsetting failed for %s, pages use the full fonts: %s".formatted(
+                locale, e.getCause().getMessage()));
+        return FontFaces.full();
+    } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new InterruptedIOException("Font subsetting interrupted");
+    }
+
+    var css = new ArrayList<String>();
+    var preloads = new ArrayList<String>();
+    var files = new LinkedHashMap<String, String>();
+    for (var font : WEB_FONTS) {
+        var uncovered = new BitSet();
+        FONT_GROUPS.values().forEach(range -> uncovered.or(parseUnicodeRange(range)));
+        for (var subset : subsets) {
+            if (subset.font() != font) continue;
+            if (!output.has(subset.path())) output.write(subset.path(), subset.woff2());
+            var url = "/" + subset.path();
+            css.add(font.face(url, subset.unicodeRange()));
+            if (subset.shared()) preloads.add(font.preload(url));
+            files.put(url, revision(subset.woff2()));
+            uncovered.andNot(parseUnicodeRange(subset.unicodeRange()));
+        }
+        // Not precached: browsers only fetch it for a character none of the subsets has
+        if (!uncovered.isEmpty()) css.add(font.face(FontFaces.fullUrl(font), formatUnicodeRange(uncovered)));
+    }
+    return new FontFaces(String.join("\n", css), String.join("\n", preloads), files);
+}
+
+/** A WOFF2 subset of the font with the given unicode-range, from the cache or pyftsubset */
+byte[] subsetFont(Path pyftsubset, Path source, String unicodeRange) throws IOException, InterruptedException {
+    var fontBytes = Files.readAllBytes(source);
+    var key = revision(HexFormat.of().formatHex(CorpusCache.sha256(fontBytes)) + " " + unicodeRange);
+    var cached = FONT_CACHE_DIR.resolve(key + ".woff2");
+    if (Files.isRegularFile(cached)) return Files.readAllBytes(cached);
+
+    Files.createDirectories(FONT_CACHE_DIR);
+    var tmp = Files.createTempFile(FONT_CACHE_DIR, key, ".tmp");
+    var process = new ProcessBuilder(pyftsubset.toString(), source.toString(), "--unicodes=" + unicodeRange,
+            "--flavor=woff2", "--layout-features=*", "--output-file=" + tmp)
+            .redirectErrorStream(true)
+            .start();
+    var log = new String(process.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+    if (process.waitFor() != 0 || Files.size(tmp) == 0) {
+        Files.deleteIfExists(tmp);
+        throw new IOException("pyftsubset %s: %s".formatted(source.getFileName(), log.strip()));
+    }
+    Files.move(tmp, cached, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    return Files.readAllBytes(cached);
+}
+
+static BitSet parseUnicodeRange(String unicodeRange) {
+    var set = new BitSet();
+    for (var part : unicodeRange.split(",")) {
+        var bounds = part.strip().substring(2).split("-");
+        var from = Integer.parseInt(bounds[0], 16);
+        var to = bounds.length > 1 ? Integer.parseInt(bounds[1], 16) : from;
+        set.set(from, to + 1);
+    }
+    return set;
+}
+
+static String formatUnicodeRange(BitSet set) {
+    var parts = new ArrayList<String>();
+    for (int from = set.nextSetBit(0); from >= 0; from = set.nextSetBit(set.nextClearBit(from))) {
+        var to = set.nextClearBit(from) - 1;
+        parts.add(from == to ? "U+%04X".formatted(from) : "U+%04X-%04X".formatted(from, to));
+    }
+    return String.join(",", parts);
+}
+
+/** The executable on the PATH with this name, or null */
+static Path findExecutable(String name) {
+    return Stream.of(System.getenv().getOrDefault("PATH", "").split(File.pathSeparator))
+            .filter(dir -> !dir.isEmpty())
+            .map(dir -> Path.of(dir, name))
+            .filter(Files::isExecutable)
+            .findFirst()
+            .orElse(null);
+}
+
+/** Static files that every locale's service worker precaches, besides the fonts in its FontFaces */
+static final List<String> PRECACHED_ASSETS = List.of("styles.css", "app.js");
+
+/** URL and content revision of each precached static file in the site directory */
+SequencedMap<String, String> assetRevisions() throws IOException {
+    var revisions = new LinkedHashMap<String, String>();
+    for (var asset : PRECACHED_ASSETS) {
+        var file = Path.of(SITE_DIR, asset);
+        if (Files.isRegularFile(file)) revisions.put("/" + asset, revision(Files.readAllBytes(file)));
+    }
+    return revisions;
+}
+
+/** First 12 hex digits of the SHA-256 of the content */
+static String revision(byte[] content) {
+    return HexFormat.of().formatHex(CorpusCache.sha256(content)).substring(0, 12);
+}
+
+static String revision(String content) {
+    return revision(content.getBytes(StandardCharsets.UTF_8));
+}
+
+/**
+ * Render a locale's sw.js. The cache name is derived from the manifest, so the
+ * file, and with it the installed worker, changes only when a precached output does.
+ */
+String renderServiceWorker(String tpl, String locale, String scope, SequencedMap<String, String> precache) {
+    var manifest = precache.entrySet().stream()
+            .map(e -> "  { url: '%s', revision: '%s' },".formatted(e.getKey(), e.getValue()))
+            .collect(Collectors.joining("\n"));
+    return replaceTokens(tpl, Map.of(
+            "locale", locale,
+            "scope", scope,
+            "precacheHash", revision(manifest),
+            "precacheManifest", manifest));
+}
+
+/** Cards rendered into index.html itself: enough for the first screen, independent of the catalogue size */
+static final int INDEX_INLINE_CARDS = 24;
+
+/**
+ * Keep the first INDEX_INLINE_CARDS cards (category, html) inline and write
+ * the rest to {chunkDir}/{category}.html. Each chunk leaves an empty
+ * placeholder where its cards belong, which app.js replaces with the fetched
+ * cards when the category is selected or the grid is scrolled to its end.
+ */
+String chunkIndexCards(List<Map.Entry<String, String>> cards, OutputSink output, String chunkDir, String chunkUrl)
+        throws IOException {
+    var html = new ArrayList<String>();
+    var chunks = new LinkedHashMap<String, List<String>>();
+    for (int i = 0; i < cards.size(); i++) {
+        var card = cards.get(i);
+        if (i < INDEX_INLINE_CARDS) html.add(card.getValue());
+        else chunks.computeIfAbsent(card.getKey(), k -> new ArrayList<>()).add(card.getValue());
+    }
+    for (var chunk : chunks.entrySet()) {
+        output.write(chunkDir + "/" + chunk.getKey() + ".html", String.join("\n", chunk.getValue()) + "\n");
+        html.add("      <div class=\"card-chunk\" data-category=\"%s\" data-src=\"%s%s.html\" hidden></div>"
+                .formatted(chunk.getKey(), chunkUrl, chunk.getKey()));
+    }
+    // Drop chunks of an earlier build, e.g. for a category that now fits inline
+    output.retain(chunkDir, chunks.keySet().stream().map(c -> c + ".html").collect(Collectors.toSet()));
+    return String.join("\n", html);
+}
+
+/**
+ * Where a build writes the site, addressed by site-relative paths such as
+ * "de/streams/stream-tolist.html".
+ */
+interface OutputSink extends Closeable {
+    void write(String path, byte[] content) throws IOException;
+
+    default void write(String path, String content) throws IOException {
+        write(path, content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /** Write content given as consecutive parts, e.g. from {@link TemplateRenderer#renderUtf8}, without consuming them */
+    default void write(String path, ByteBuffer... content) throws IOException {
+        write(path, join(content));
+    }
+
+    /** The parts' remaining bytes in one array, leaving their positions as they are */
+    static byte[] join(ByteBuffer... content) {
+        var bytes = new byte[remaining(content)];
+        var pos = 0;
+        for (var part : content) {
+            part.get(part.position(), bytes, pos, part.remaining());
+            pos += part.remaining();
+        }
+        return bytes;
+    }
+
+    static int remaining(ByteBuffer... content) {
+        var size = 0;
+        for (var part : content) size += part.remaining();
+        return size;
+    }
+
+    /** Whether the output already holds a file at this path, from this build or an earlier one */
+    boolean has(String path);
+
+    /** Delete the files in a directory that are not in names */
+    void retain(String dir, Set<String> names) throws IOException;
+
+    /** Site-relative paths written or deleted so far, in order */
+    List<String> changed();
+
+    @Override
+    default void close() throws IOException {
+    }
+}
+
+/**
+ * Writes the site as a directory tree. With skipUnchanged, files whose content
+ * is already on disk are not rewritten, so a build can report exactly what it changed.
+ */
+static final class DirectorySink implements OutputSink {
+    private final Path root;
+    private final boolean skipUnchanged;
+    private final List<String> changed = Collections.synchronizedList(new ArrayList<>());
+
+    DirectorySink(Path root, boolean skipUnchanged) {
+        this.root = root;
+        this.skipUnchanged = skipUnchanged;
+    }
+
+    @Override
+    public void write(String path, byte[] bytes) throws IOException {
+        write(path, ByteBuffer.wrap(bytes));
+    }
+
+    /** Write the parts with one gather write, without joining them into one array first */
+    @Override
+    public void write(String path, ByteBuffer... content) throws IOException {
+        var file = root.resolve(path);
+        if (skipUnchanged && sameContent(file, content)) return;
+        Files.createDirectories(file.getParent());
+        try (var channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            var parts = Arrays.stream(content).map(ByteBuffer::duplicate).toArray(ByteBuffer[]::new);
+            // A gather write may stop early, e.g. at the system's limit on parts per call
+            var left = OutputSink.remaining(parts);
+            while (left > 0) left -= channel.write(parts);
+        }
+        changed.add(path);
+    }
+
+    static boolean sameContent(Path file, ByteBuffer... content) throws IOException {
+        if (!Files.isRegularFile(file) || Files.size(file) != OutputSink.remaining(content)) return false;
+        var existing = Files.readAllBytes(file);
+        var pos = 0;
+        for (var part : content) {
+            if (!part.equals(ByteBuffer.wrap(existing, pos, part.remaining()))) return false;
+            pos += part.remaining();
+        }
+        return true;
+    }
+
+    @Override
+    public boolean has(String path) {
+        return Files.isRegularFile(root.resolve(path));
+    }
+
+    @Override
+    public void retain(String dir, Set<String> names) throws IOException {
+        var directory = root.resolve(dir);
+        if (!Files.isDirectory(directory)) return;
+        try (var stream = Files.newDirectoryStream(directory)) {
+            for (var file : stream) {
+                var name = file.getFileName().toString();
+                if (Files.isRegularFile(file) && !names.contains(name)) {
+                    Files.delete(file);
+                    changed.add(dir + "/" + name);
+                }
+            }
+        }
+    }
+
+    @Override
+    public List<String> changed() {
+        synchronized (changed) {
+            return List.copyOf(changed);
+        }
+    }
+}
+
+/** Keeps the site in memory, for benchmarks and tests that should not touch the disk */
+static final class MemorySink implements OutputSink {
+    private final SequencedMap<String, byte[]> files = new LinkedHashMap<>();
+
+    @Override
+    public synchronized void write(String path, byte[] content) {
+        files.put(path, content);
+    }
+
+    @Override
+    public synchronized boolean has(String path) {
+        return files.containsKey(path);
+    }
+
+    @Override
+    public synchronized void retain(String dir, Set<String> names) {
+        files.keySet().removeIf(path -> path.startsWith(dir + "/")
+                && !names.contains(path.substring(dir.length() + 1)));
+    }
+
+    @Override
+    public synchronized List<String> changed() {
+        return List.copyOf(files.sequencedKeySet());
+    }
+
+    synchronized SequencedMap<String, byte[]> files() {
+        return Collections.unmodifiableSequencedMap(files);
+    }
+
+    synchronized long totalBytes() {
+        return files.values().stream().mapToLong(bytes -> bytes.length).sum();
+    }
+}
+
+/**
+ * Streams the whole site into one ZIP (or JAR) archive, so a deploy uploads
+ * one file instead of thousands. Static assets from the site directory come
+ * first in path order, then the generated files in build order, which is
+ * deterministic. Every entry gets the same timestamp, so identical input
+ * gives a byte-identical archive.
+ */
+static final class ZipSink implements OutputSink {
+    static final LocalDateTime ENTRY_TIME = LocalDateTime.of(1980, 1, 1, 0, 0);
+
+    private final Path archive;
+    private final ZipOutputStream zip;
+    private final boolean deflate;
+    private final List<String> written = new ArrayList<>();
+    private final Set<String> names = new HashSet<>();
+    private int entries;
+    private long bytes;
+
+    ZipSink(Path archive, boolean deflate, Path staticRoot) throws IOException {
+        this.archive = archive;
+        if (archive.getParent() != null) Files.createDirectories(archive.getParent());
+        this.zip = new ZipOutputStream(new BufferedOutputStream(Files.newOutputStream(archive), 1 << 16));
+        this.deflate = deflate;
+        for (var asset : staticAssets(staticRoot)) {
+            put(asset, Files.readAllBytes(staticRoot.resolve(asset)));
+        }
+    }
+
+    @Override
+    public synchronized void write(String path, byte[] content) throws IOException {
+        put(path, content);
+        written.add(path);
+    }
+
+    @Override
+    public synchronized boolean has(String path) {
+        return names.contains(path);
+    }
+
+    /** A fresh archive holds no stale files, so there is nothing to delete */
+    @Override
+    public void retain(String dir, Set<String> names) {
+    }
+
+    @Override
+    public synchronized List<String> changed() {
+        return List.copyOf(written);
+    }
+
+    Path archive() {
+        return archive;
+    }
+
+    synchronized int entries() {
+        return entries;
+    }
+
+    synchronized long totalBytes() {
+        return bytes;
+    }
+
+    private void put(String path, byte[] content) throws IOException {
+        var entry = new ZipEntry(path);
+        entry.setTimeLocal(ENTRY_TIME);
+        if (!deflate) {
+            var crc = new CRC32();
+            crc.update(content);
+            entry.setMethod(ZipEntry.STORED);
+            entry.setSize(content.length);
+            entry.setCompressedSize(content.length);
+            entry.setCrc(crc.getValue());
+        }
+        zip.putNextEntry(entry);
+        zip.write(content);
+        zip.closeEntry();
+        names.add(path);
+        entries++;
+        bytes += content.length;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        zip.close();
+    }
+
+    /** Site files that the generator does not write: styles, scripts, images, fonts */
+    static List<String> staticAssets(Path root) throws IOException {
+        if (!Files.isDirectory(root)) return List.of();
+        try (var walk = Files.walk(root)) {
+            return walk.filter(Files::isRegularFile)
+                    .map(file -> root.relativize(file).toString().replace('\\', '/'))
+                    .filter(path -> !isGenerated(path))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    static boolean isGenerated(String path) {
+        var top = path.contains("/") ? path.substring(0, path.indexOf('/')) : null;
+        return path.equals("index.html") || path.equals("sw.js") || path.startsWith("images/og/")
+                || path.startsWith("assets/fonts/subset/") || top != null && (top.equals("data")
+                || CATEGORY_DISPLAY.containsKey(top) || LOCALES.containsKey(top));
+    }
 }
 
-/** Load UI strings for a locale, falling back to en.json for missing keys */
-static Map<String, String> loadStrings(String locale) throws IOException {
-    var enFile = findWithExtensions(Path.of(TRANSLATIONS_DIR, "strings"), "en")
-            .orElseThrow(() -> new IOException("No English strings file found"));
-    var enStrings = flattenJson(readAuto(enFile), "");
+/**
+ * The sink for --output: "memory", an archive path ending in .zip or .jar
+ * (deflated unless --store is given), or a directory. Defaults to site/.
+ */
+OutputSink openSink(List<String> argList) throws IOException {
+    var pos = argList.indexOf("--output");
+    var target = pos >= 0 && pos + 1 < argList.size() ? argList.get(pos + 1) : SITE_DIR;
+    if (target.equals("memory")) return new MemorySink();
+    if (target.endsWith(".zip") || target.endsWith(".jar")) {
+        return new ZipSink(Path.of(target), !argList.contains("--store"), Path.of(SITE_DIR));
+    }
+    return new DirectorySink(Path.of(target), false);
+}
 
-    if (locale.equals("en")) return enStrings;
+/**
+ * Page-weight limits from budgets.properties, keyed "type.metric" with
+ * optional per-locale overrides keyed "type.locale.metric".
+ */
+record Budgets(Map<String, Long> limits) {
+    static final List<String> METRICS = List.of("raw", "gzip", "inlineScript", "inlineStyle", "domNodes", "blocking");
 
-    var localeFile = findWithExtensions(Path.of(TRANSLATIONS_DIR, "strings"), locale);
-    if (localeFile.isEmpty()) {
-        IO.println("[WARN] strings/%s.{json,yaml,yml} not found — using all English strings".formatted(locale));
-        return enStrings;
+    static Budgets load(Path file) throws IOException {
+        var limits = new HashMap<String, Long>();
+        for (var line : Files.readAllLines(file)) {
+            line = line.strip();
+            if (line.isEmpty() || line.startsWith("#")) continue;
+            var idx = line.indexOf('=');
+            if (idx < 0) continue;
+            var key = line.substring(0, idx).strip();
+            if (!METRICS.contains(key.substring(key.lastIndexOf('.') + 1))) {
+                throw new IOException("%s: unknown metric in \"%s\", expected one of %s".formatted(file, key, METRICS));
+            }
+            try {
+                limits.put(key, Long.parseLong(line.substring(idx + 1).strip().replace("_", "")));
+            } catch (NumberFormatException e) {
+                throw new IOException("%s: \"%s\" is not a number".formatted(file, line.substring(idx + 1).strip()));
+            }
+        }
+        return new Budgets(Map.copyOf(limits));
     }
 
-    var localeStrings = flattenJson(readAuto(localeFile.get()), "");
-    var merged = new LinkedHashMap<>(enStrings);
-    for (var entry : localeStrings.entrySet()) {
-        if (enStrings.containsKey(entry.getKey())) {
-            merged.put(entry.getKey(), entry.getValue());
-        }
+    /** The limit for a metric of a page type in a locale, or null if there is none */
+    Long limit(String type, String locale, String metric) {
+        var limit = limits.get(type + "." + locale + "." + metric);
+        return limit != null ? limit : limits.get(type + "." + metric);
     }
-    // Warn about missing keys
-    for (var key : enStrings.keySet()) {
-        if (!localeStrings.containsKey(key)) {
-            IO.println("[WARN] %s: missing key \"%s\" — using English fallback".formatted(localeFile.get().getFileName(), key));
-        }
+
+    boolean covers(String type) {
+        return limits.keySet().stream().anyMatch(key -> key.startsWith(type + "."));
     }
-    return merged;
 }
 
-static final Set<String> EXCLUDED_KEYS = Set.of("_path", "prev", "next", "related");
+/**
+ * Checks every output against the page-weight budgets on its way to the
+ * wrapped sink: raw and gzip-compressed bytes, and for HTML, inline script and
+ * style bytes, an estimate of the DOM size (elements) and the number of
+ * render-blocking resources in the head. Outputs over budget are reported
+ * on close, furthest over first; in fail mode, close then fails the build.
+ */
+static final class BudgetSink implements OutputSink {
+    static final int REPORT_LIMIT = 50;
+    static final Pattern ATTRIBUTE = Pattern.compile("([\\w-]+)(?:\\s*=\\s*(\"[^\"]*\"|'[^']*'|[^\\s\"'>]+))?");
+
+    record Offender(String path, String metric, long value, long limit) {
+        double ratio() { return (double) value / limit; }
+    }
 
-record Snippet(JsonNode node) {
-    String get(String f)    { return node.get(f).asText(); }
-    String slug()           { return get("slug"); }
-    String category()       { return get("category"); }
-    String title()          { return get("title"); }
-    String summary()        { return get("summary"); }
-    String difficulty()     { return get("difficulty"); }
-    String jdkVersion()     { return get("jdkVersion"); }
-    String oldLabel()       { return get("oldLabel"); }
-    String modernLabel()    { return get("modernLabel"); }
-    String oldCode()        { return get("oldCode"); }
-    String modernCode()     { return get("modernCode"); }
-    String oldApproach()    { return get("oldApproach"); }
-    String modernApproach() { return get("modernApproach"); }
-    String explanation()    { return get("explanation"); }
-    String supportState()   { return node.get("support").get("state").asText(); }
-    String supportDesc()    { return node.get("support").get("description").asText(); }
-    String key()            { return category() + "/" + slug(); }
-    String catDisplay()     { return CATEGORY_DISPLAY.get(category()); }
-    JsonNode whyModernWins() { return node.get("whyModernWins"); }
+    private final OutputSink output;
+    private final Budgets budgets;
+    private final boolean fail;
+    private final List<Offender> offenders = Collections.synchronizedList(new ArrayList<>());
+    private final AtomicInteger checked = new AtomicInteger();
 
-    Optional<String> optText(String f) {
-        var n = node.get(f);
-        return n != null && !n.isNull() ? Optional.of(n.asText()) : Optional.empty();
+    BudgetSink(OutputSink output, Budgets budgets, boolean fail) {
+        this.output = output;
+        this.budgets = budgets;
+        this.fail = fail;
     }
 
-    List<String> related() {
-        var rel = node.get("related");
-        if (rel == null) return List.of();
-        var paths = new ArrayList<String>();
-        rel.forEach(n -> paths.add(n.asText()));
-        return paths;
+    @Override
+    public void write(String path, byte[] content) throws IOException {
+        check(path, content);
+        output.write(path, content);
     }
-}
 
-record Templates(String page, String whyCard, String relatedCard, String socialShare,
-                 String index, String indexCard, String docLink) {
-    static Templates load() throws IOException {
-        return new Templates(
-            Files.readString(Path.of("templates/slug-template.html")),
-            Files.readString(Path.of("templates/why-card.html")),
-            Files.readString(Path.of("templates/related-card.html")),
-            Files.readString(Path.of("templates/social-share.html")),
-            Files.readString(Path.of("templates/index.html")),
-            Files.readString(Path.of("templates/index-card.html")),
-            Files.readString(Path.of("templates/doc-link.html")));
+    @Override
+    public void write(String path, ByteBuffer... content) throws IOException {
+        if (budgets.covers(pageType(path))) {
+            // Measure a copy, so the wrapped sink still gets the parts for its gather write
+            check(path, OutputSink.join(content));
+        }
+        output.write(path, content);
     }
-}
 
-void main(String... args) throws IOException {
-    var templates = Templates.load();
-    var allSnippets = loadAllSnippets();
-    IO.println("Loaded %d snippets".formatted(allSnippets.size()));
+    @Override
+    public boolean has(String path) {
+        return output.has(path);
+    }
 
-    // Determine which locales to build
-    List<String> localesToBuild;
-    if (args.length > 0 && args[0].equals("--all-locales")) {
-        localesToBuild = new ArrayList<>(LOCALES.sequencedKeySet());
-    } else if (args.length > 1 && args[0].equals("--locale")) {
-        localesToBuild = List.of(args[1]);
-    } else {
-        localesToBuild = new ArrayList<>(LOCALES.sequencedKeySet());
+    @Override
+    public void retain(String dir, Set<String> names) throws IOException {
+        output.retain(dir, names);
     }
 
-    for (var locale : localesToBuild) {
-        buildLocale(locale, templates, allSnippets);
+    @Override
+    public List<String> changed() {
+        return output.changed();
     }
-}
 
-void buildLocale(String locale, Templates templates, SequencedMap<String, Snippet> allSnippets) throws IOException {
-    var isEnglish = locale.equals("en");
-    var strings = loadStrings(locale);
-    var localeName = LOCALES.getOrDefault(locale, locale);
-    var sitePrefix = isEnglish ? "" : locale + "/";
-    // basePrefix is the relative path from a detail page back to site root
-    var basePrefix = isEnglish ? "../" : "../../";
-    var homeUrl = isEnglish ? "/" : "/%s/".formatted(locale);
+    /** Report the outputs over budget, then close the wrapped sink */
+    @Override
+    public void close() throws IOException {
+        try {
+            report();
+        } finally {
+            output.close();
+        }
+    }
 
-    IO.println("Building locale: %s (%s)".formatted(locale, localeName));
+    void report() throws IOException {
+        var report = List.copyOf(offenders).stream()
+                .sorted(Comparator.comparingDouble(Offender::ratio).reversed().thenComparing(Offender::path))
+                .toList();
+        if (report.isEmpty()) {
+            IO.println("Page-weight budgets: %d outputs checked, all within budget".formatted(checked.get()));
+            return;
+        }
+        var over = report.stream().map(Offender::path).distinct().count();
+        IO.println("[%s] Page-weight budgets: %d of %d outputs over budget".formatted(
+                fail ? "ERROR" : "WARN", over, checked.get()));
+        for (var o : report.subList(0, Math.min(report.size(), REPORT_LIMIT))) {
+            IO.println("  %+6.1f%%  %-13s %,9d > %,9d  %s".formatted(
+                    (o.ratio() - 1) * 100, o.metric(), o.value(), o.limit(), o.path()));
+        }
+        if (report.size() > REPORT_LIMIT) IO.println("  ... and %d more".formatted(report.size() - REPORT_LIMIT));
+        if (fail) throw new IOException("%d outputs over their page-weight budget (see %s)".formatted(over, BUDGETS_FILE));
+    }
 
-    // Build locale picker HTML
-    var localePickerHtml = renderLocalePicker(locale);
-    // Build hreflang links for index
-    var indexHreflang = renderHreflangLinks("", "index");
-    // Build i18n script block
-    var i18nScript = renderI18nScript(strings, locale);
+    void check(String path, byte[] content) {
+        var type = pageType(path);
+        if (!budgets.covers(type)) return;
+        checked.incrementAndGet();
+        var locale = pageLocale(path);
+        for (var metric : measure(path, content).entrySet()) {
+            var limit = budgets.limit(type, locale, metric.getKey());
+            if (limit != null && metric.getValue() > limit) {
+                offenders.add(new Offender(path, metric.getKey(), metric.getValue(), limit));
+            }
+        }
+    }
 
-    // Load translated content if available
-    for (var snippet : allSnippets.values()) {
-        var resolved = resolveSnippet(snippet, locale);
-        var detailHreflang = renderHreflangLinks(snippet.category() + "/", snippet.slug());
+    /** The budget category of a site-relative path, e.g. "index", "page" or "snippets" */
+    static String pageType(String path) {
+        var locale = pageLocale(path);
+        var local = locale.equals("en") ? path : path.substring(locale.length() + 1);
+        if (local.equals("index.html")) return "index";
+        if (local.equals("sw.js")) return "serviceWorker";
+        if (local.equals("data/snippets.json")) return "snippets";
+        if (local.equals("data/nav-graph.json")) return "navGraph";
+        if (local.startsWith("data/cards/")) return "cardChunk";
+        if (local.startsWith("images/og/")) return "ogImage";
+        if (local.startsWith("assets/fonts/")) return "font";
+        var slash = local.indexOf('/');
+        if (slash > 0 && CATEGORY_DISPLAY.containsKey(local.substring(0, slash)) && local.endsWith(".html")) {
+            return "page";
+        }
+        return "other";
+    }
 
-        var extraTokens = new LinkedHashMap<String, String>();
-        extraTokens.putAll(strings);
-        extraTokens.put("locale", locale);
-        extraTokens.put("htmlDir", locale.equals("ar") ? "rtl" : "ltr");
-        extraTokens.put("ogLocale", locale.replace("-", "_"));
-        extraTokens.put("basePrefix", basePrefix);
-        extraTokens.put("homeUrl", homeUrl);
-        extraTokens.put("localePicker", localePickerHtml);
-        extraTokens.put("hreflangLinks", detailHreflang);
-        extraTokens.put("i18nScript", i18nScript);
+    static String pageLocale(String path) {
+        var slash = path.indexOf('/');
+        return slash > 0 && LOCALES.containsKey(path.substring(0, slash)) ? path.substring(0, slash) : "en";
+    }
 
-        var html = generateHtml(templates, resolved, allSnippets, extraTokens, locale).strip();
+    static Map<String, Long> measure(String path, byte[] content) {
+        var metrics = new LinkedHashMap<String, Long>();
+        metrics.put("raw", (long) content.length);
+        metrics.put("gzip", gzipSize(content));
+        if (path.endsWith(".html")) metrics.putAll(measureHtml(content));
+        return metrics;
+    }
 
-        if (isEnglish) {
-            Files.createDirectories(Path.of(SITE_DIR, snippet.category()));
-            Files.writeString(Path.of(SITE_DIR, snippet.category(), snippet.slug() + ".html"), html);
-        } else {
-            Files.createDirectories(Path.of(SITE_DIR, locale, snippet.category()));
-            Files.writeString(Path.of(SITE_DIR, locale, snippet.category(), snippet.slug() + ".html"), html);
+    /** Size after gzip at the default level, as a web server would send it */
+    static long gzipSize(byte[] content) {
+        var deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+        try {
+            deflater.setInput(content);
+            deflater.finish();
+            var buffer = new byte[16 * 1024];
+            while (!deflater.finished()) deflater.deflate(buffer);
+            // 10-byte gzip header and 8-byte trailer around the deflate stream
+            return deflater.getBytesWritten() + 18;
+        } finally {
+            deflater.end();
         }
     }
-    IO.println("Generated %d HTML files for %s".formatted(allSnippets.size(), locale));
 
-    // Rebuild data/snippets.json
-    var snippetsList = allSnippets.values().stream()
-            .map(s -> {
-                var resolved = resolveSnippet(s, locale);
-                Map<String, Object> map = JSON_MAPPER.convertValue(resolved.node(), new TypeReference<LinkedHashMap<String, Object>>() {});
-                EXCLUDED_KEYS.forEach(map::remove);
-                return map;
-            })
-            .toList();
+    /**
+     * Scan the UTF-8 bytes of a page for its elements. Markup is ASCII, so no
+     * decoding is needed; comments are skipped and the content of script and
+     * style elements is counted, not scanned.
+     */
+    static Map<String, Long> measureHtml(byte[] b) {
+        var length = b.length;
+        long inlineScript = 0, inlineStyle = 0, nodes = 0, blocking = 0;
+        var inHead = true;
+        var i = 0;
+        while (i < length) {
+            if (b[i] != '<') {
+                i++;
+                continue;
+            }
+            if (startsWith(b, length, i, "<!--")) {
+                i = indexOf(b, length, i + 4, "-->") + 3;
+                continue;
+            }
+            var closing = i + 1 < length && b[i + 1] == '/';
+            var nameStart = i + (closing ? 2 : 1);
+            var nameEnd = nameStart;
+            while (nameEnd < length && (Character.isLetterOrDigit(b[nameEnd]) || b[nameEnd] == '-')) nameEnd++;
+            if (nameEnd == nameStart) {
+                // <!DOCTYPE ...>, or a '<' that does not start a tag
+                i = b[nameStart - 1] == '!' ? indexOf(b, length, i, ">") + 1 : i + 1;
+                continue;
+            }
+            var tagEnd = tagEnd(b, length, nameEnd);
+            var name = new String(b, nameStart, nameEnd - nameStart, StandardCharsets.US_ASCII).toLowerCase(Locale.ROOT);
+            i = tagEnd + 1;
+            if (closing) {
+                if (name.equals("head")) inHead = false;
+                continue;
+            }
+            nodes++;
+            var attrs = attributes(new String(b, nameEnd, tagEnd - nameEnd, StandardCharsets.UTF_8));
+            switch (name) {
+                case "body" -> inHead = false;
+                case "script", "style" -> {
+                    var end = indexOfIgnoreCase(b, length, i, "</" + name);
+                    if (name.equals("style")) inlineStyle += end - i;
+                    else if (!attrs.containsKey("src")) inlineScript += end - i;
+                    else if (inHead && !attrs.containsKey("async") && !attrs.containsKey("defer")
+                            && !"module".equals(attrs.get("type"))) blocking++;
+                    i = end;
+                }
+                case "link" -> {
+                    var rel = attrs.getOrDefault("rel", "").toLowerCase(Locale.ROOT);
+                    var media = attrs.getOrDefault("media", "all").toLowerCase(Locale.ROOT);
+                    if (inHead && rel.equals("stylesheet") && !media.equals("print") && !attrs.containsKey("disabled")) {
+                        blocking++;
+                    }
+                }
+                default -> { }
+            }
+        }
+        return Map.of("inlineScript", inlineScript, "inlineStyle", inlineStyle, "domNodes", nodes, "blocking", blocking);
+    }
 
-    var dataDir = isEnglish ? Path.of(SITE_DIR, "data") : Path.of(SITE_DIR, locale, "data");
-    Files.createDirectories(dataDir);
-    var prettyMapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
-    Files.writeString(dataDir.resolve("snippets.json"), prettyMapper.writeValueAsString(snippetsList) + "\n");
-    IO.println("Rebuilt data/snippets.json for %s with %d entries".formatted(locale, snippetsList.size()));
+    static Map<String, String> attributes(String text) {
+        var attrs = new HashMap<String, String>();
+        var m = ATTRIBUTE.matcher(text);
+        while (m.find()) {
+            var value = m.group(2) == null ? "" : m.group(2);
+            if (value.startsWith("\"") || value.startsWith("'")) value = value.substring(1, value.length() - 1);
+            attrs.putIfAbsent(m.group(1).toLowerCase(Locale.ROOT), value);
+        }
+        return attrs;
+    }
 
-    // Generate index.html from template
-    var tipCards = allSnippets.values().stream()
-            .map(s -> renderIndexCard(templates.indexCard(), resolveSnippet(s, locale), locale, strings))
-            .collect(Collectors.joining("\n"));
+    /** The index of the '>' that ends a tag, skipping quoted attribute values */
+    static int tagEnd(byte[] b, int length, int from) {
+        byte quote = 0;
+        for (int i = from; i < length; i++) {
+            if (quote != 0) {
+                if (b[i] == quote) quote = 0;
+            } else if (b[i] == '"' || b[i] == '\'') {
+                quote = b[i];
+            } else if (b[i] == '>') {
+                return i;
+            }
+        }
+        return length - 1;
+    }
 
-    var indexTokens = new LinkedHashMap<String, String>();
-    indexTokens.putAll(strings);
-    indexTokens.put("tipCards", tipCards);
-    indexTokens.put("snippetCount", String.valueOf(allSnippets.size()));
-    indexTokens.put("locale", locale);
-    indexTokens.put("htmlDir", locale.equals("ar") ? "rtl" : "ltr");
-    indexTokens.put("ogLocale", locale.replace("-", "_"));
-    indexTokens.put("canonicalUrl", isEnglish ? BASE_URL : BASE_URL + "/" + locale);
-    indexTokens.put("homeUrl", homeUrl);
-    indexTokens.put("indexBasePrefix", isEnglish ? "" : "../");
-    indexTokens.put("localePicker", localePickerHtml);
-    indexTokens.put("hreflangLinks", indexHreflang);
-    indexTokens.put("i18nScript", i18nScript);
+    static boolean startsWith(byte[] b, int length, int at, String prefix) {
+        if (at + prefix.length() > length) return false;
+        for (int i = 0; i < prefix.length(); i++) {
+            if (b[at + i] != prefix.charAt(i)) return false;
+        }
+        return true;
+    }
 
-    var indexHtml = replaceTokens(templates.index(), indexTokens);
-    var indexPath = isEnglish ? Path.of(SITE_DIR, "index.html") : Path.of(SITE_DIR, locale, "index.html");
-    if (!isEnglish) Files.createDirectories(indexPath.getParent());
-    Files.writeString(indexPath, indexHtml);
-    IO.println("Generated index.html for %s with %d cards".formatted(locale, allSnippets.size()));
+    static int indexOf(byte[] b, int length, int from, String text) {
+        for (int i = from; i + text.length() <= length; i++) {
+            if (startsWith(b, length, i, text)) return i;
+        }
+        return length;
+    }
+
+    static int indexOfIgnoreCase(byte[] b, int length, int from, String text) {
+        outer:
+        for (int i = from; i + text.length() <= length; i++) {
+            for (int j = 0; j < text.length(); j++) {
+                if (Character.toLowerCase(b[i + j]) != text.charAt(j)) continue outer;
+            }
+            return i;
+        }
+        return length;
+    }
 }
 
-SequencedMap<String, Snippet> loadAllSnippets() throws IOException {
-    SequencedMap<String, Snippet> snippets = new LinkedHashMap<>();
+/** Wrap the output in a BudgetSink unless --budgets off is given or there is no budgets file */
+OutputSink budgetSink(OutputSink output, List<String> argList) throws IOException {
+    var pos = argList.indexOf("--budgets");
+    var mode = pos >= 0 && pos + 1 < argList.size() ? argList.get(pos + 1) : "warn";
+    var file = Path.of(BUDGETS_FILE);
+    return switch (mode) {
+        case "off" -> output;
+        case "warn", "fail" -> Files.isRegularFile(file)
+                ? new BudgetSink(output, Budgets.load(file), mode.equals("fail"))
+                : output;
+        default -> throw new IllegalArgumentException("--budgets expects warn, fail or off, not \"" + mode + "\"");
+    };
+}
+
+/** Render each snippet's locale-invariant fragments once, for reuse by every locale's pages and cards */
+Map<String, SnippetFragments> renderFragments(Templates templates, SequencedMap<String, Snippet> allSnippets,
+                                              FileIndex files) throws IOException {
+    var fragments = new HashMap<String, SnippetFragments>(allSnippets.size() * 2);
+    for (var s : allSnippets.values()) {
+        fragments.put(s.key(), new SnippetFragments(
+                escape(s.oldCode()), escape(s.modernCode()), escape(s.oldLabel()), escape(s.modernLabel()),
+                renderDocLinks(templates.docLink(), s.docs()),
+                renderHreflangLinks(s.category() + "/", s.slug()),
+                "%s/%s.html".formatted(BASE_URL, s.slug()),
+                jsonEscape(s.catDisplay()),
+                proofUrl(s, files)));
+    }
+    return fragments;
+}
+
+/**
+ * Parse every content file in parallel, then assemble the corpus in category
+ * order and, within a category, in path order, so the result does not depend
+ * on which file finished first. All parse errors are reported together, each
+ * with its file's path.
+ */
+SequencedMap<String, Snippet> loadAllSnippets(CorpusCache cache, FileIndex files) throws IOException {
+    var contentFiles = new ArrayList<FileIndex.Entry>();
     for (var cat : CATEGORY_DISPLAY.sequencedKeySet()) {
-        var catDir = Path.of(CONTENT_DIR, cat);
-        if (!Files.isDirectory(catDir)) continue;
-        var sorted = new ArrayList<Path>();
-        // first collect and sortall files
-        for (var ext : MAPPERS.keySet()) {
-          try (var stream = Files.newDirectoryStream(catDir, "*." + ext)) {
-              stream.forEach(sorted::add);
-          }
-        }
-        sorted.sort(Path::compareTo);
-        for (var path : sorted) {
-            var filename = path.getFileName().toString();
-            var ext = filename.substring(filename.lastIndexOf('.') + 1);
-            var json = MAPPERS.get(ext).readTree(path.toFile());
-            var snippet = new Snippet(json);
-            snippets.put(snippet.key(), snippet);
+        // The index lists each directory's files sorted by path
+        for (var file : files.list(Path.of(CONTENT_DIR, cat))) {
+            if (isContentFile(file.path())) contentFiles.add(file);
         }
     }
+    var loaded = contentFiles.parallelStream()
+            .map(file -> parseFile(file, cache, CorpusCache.Kind.SNIPPET, Snippet::from))
+            .toList();
+    throwParseErrors(loaded);
+
+    SequencedMap<String, Snippet> snippets = new LinkedHashMap<>();
+    for (var result : loaded) {
+        var snippet = result.value();
+        snippets.put(snippet.key(), snippet);
+    }
     return snippets;
 }
 
+boolean isContentFile(Path path) {
+    var name = path.getFileName().toString();
+    return READERS.containsKey(name.substring(name.lastIndexOf('.') + 1));
+}
+
+/** A parsed file, or the error that stopped it, with the file's path either way */
+record Parsed<T>(Path path, T value, String error) {}
+
+/** Parse one file through the cache, turning a failure into an error message instead of an exception */
+<T> Parsed<T> parseFile(FileIndex.Entry file, CorpusCache cache, CorpusCache.Kind kind,
+                        Function<JsonNode, T> converter) {
+    var path = file.path();
+    try {
+        return new Parsed<>(path, cache.load(file, kind, bytes -> converter.apply(readAuto(path, bytes))), null);
+    } catch (IOException | RuntimeException e) {
+        // Keep multi-line parser messages on one line next to the path
+        var message = Objects.requireNonNullElse(e.getMessage(), e.getClass().getSimpleName());
+        return new Parsed<>(path, null, message.lines().map(String::strip).collect(Collectors.joining(" ")));
+    }
+}
+
+void throwParseErrors(List<? extends Parsed<?>> results) throws IOException {
+    var errors = results.stream()
+            .filter(r -> r.error() != null)
+            .map(r -> "%s: %s".formatted(r.path(), r.error()))
+            .toList();
+    if (errors.isEmpty()) return;
+    throw new IOException("Failed to parse %d file%s:%n  %s".formatted(
+            errors.size(), errors.size() == 1 ? "" : "s", String.join(System.lineSeparator() + "  ", errors)));
+}
+
 String escape(String text) {
     return text == null ? "" : text.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;").replace("\"", "&quot;").replace("'", "&#x27;");
 }
@@ -346,23 +2663,56 @@ String supportBadgeClass(String state) {
 
 String renderNavArrows(Snippet snippet, String locale) {
     var prefix = locale.equals("en") ? "" : "/" + locale;
-    var prev = snippet.optText("prev")
+    var prev = Optional.ofNullable(snippet.prev())
             .map(p -> "<a href=\"%s/%s.html\" aria-label=\"Previous pattern\">←</a>".formatted(prefix, p))
             .orElse("<span class=\"nav-arrow-disabled\">←</span>");
-    var next = snippet.optText("next")
+    var next = Optional.ofNullable(snippet.next())
             .map(n -> "<a href=\"%s/%s.html\" aria-label=\"Next pattern\">→</a>".formatted(prefix, n))
             .orElse("");
     return prev + "\n          " + next;
 }
 
-String renderIndexCard(String tpl, Snippet s, String locale, Map<String, String> strings) {
+/** Pages prefetched from a detail page, so the likeliest next clicks cost at most this many requests */
+static final int PREFETCH_BUDGET = 3;
+
+/** The pages a reader most likely opens from this one: next, previous, then related, within the budget */
+List<String> prefetchTargets(Snippet s, Map<String, Snippet> all) {
+    var targets = new LinkedHashSet<String>();
+    Stream.concat(Stream.of(s.next(), s.prev()), Arrays.stream(s.related()))
+            .filter(key -> key != null && all.containsKey(key) && !key.equals(s.key()))
+            .forEach(targets::add);
+    return targets.stream().limit(PREFETCH_BUDGET).toList();
+}
+
+/** Speculation rules that let the browser prefetch the prefetch targets while the reader is on the page */
+String renderPrefetchHints(Snippet s, Map<String, Snippet> all, String locale) {
+    var prefix = locale.equals("en") ? "" : "/" + locale;
+    var urls = prefetchTargets(s, all).stream()
+            .map(key -> "\"%s/%s.html\"".formatted(prefix, key))
+            .collect(Collectors.joining(","));
+    if (urls.isEmpty()) return "";
+    return "  <script type=\"speculationrules\">{\"prefetch\":[{\"source\":\"list\",\"urls\":[%s]}]}</script>"
+            .formatted(urls);
+}
+
+/** Every page's prefetch targets as compact JSON, for app.js to prefetch on hover */
+String renderNavGraph(SequencedMap<String, Snippet> all) throws IOException {
+    var pages = new LinkedHashMap<String, List<String>>();
+    for (var s : all.values()) pages.put(s.key(), prefetchTargets(s, all));
+    var graph = new LinkedHashMap<String, Object>();
+    graph.put("budget", PREFETCH_BUDGET);
+    graph.put("pages", pages);
+    return JSON_MAPPER.writeValueAsString(graph) + "\n";
+}
+
+String renderIndexCard(String tpl, Snippet s, SnippetFragments f, String locale, Map<String, String> strings) {
     var cardHref = locale.equals("en")
             ? "/%s/%s.html".formatted(s.category(), s.slug())
             : "/%s/%s/%s.html".formatted(locale, s.category(), s.slug());
     return replaceTokens(tpl, Map.ofEntries(
             Map.entry("category", s.category()), Map.entry("slug", s.slug()),
             Map.entry("catDisplay", s.catDisplay()), Map.entry("title", escape(s.title())),
-            Map.entry("oldCode", escape(s.oldCode())), Map.entry("modernCode", escape(s.modernCode())),
+            Map.entry("oldCode", f.oldCode()), Map.entry("modernCode", f.modernCode()),
             Map.entry("jdkVersion", s.jdkVersion()), Map.entry("cardHref", cardHref),
             Map.entry("cards.old", strings.getOrDefault("cards.old", "Old")),
             Map.entry("cards.modern", strings.getOrDefault("cards.modern", "Modern")),
@@ -370,17 +2720,17 @@ String renderIndexCard(String tpl, Snippet s, String locale, Map<String, String>
             Map.entry("cards.learnMore", strings.getOrDefault("cards.learnMore", "learn more"))));
 }
 
-String renderWhyCards(String tpl, JsonNode whyList) {
+String renderWhyCards(String tpl, WhyItem[] whyList) {
     var cards = new ArrayList<String>();
     for (var w : whyList)
         cards.add(replaceTokens(tpl, Map.of(
-                "icon", w.get("icon").asText(),
-                "title", escape(w.get("title").asText()),
-                "desc", escape(w.get("desc").asText()))));
+                "icon", w.icon(),
+                "title", escape(w.title()),
+                "desc", escape(w.desc()))));
     return String.join("\n", cards);
 }
 
-String renderRelatedCard(String tpl, Snippet rel, String locale, Map<String, String> strings) {
+String renderRelatedCard(String tpl, Snippet rel, SnippetFragments f, String locale, Map<String, String> strings) {
     var relatedHref = locale.equals("en")
             ? "/%s/%s.html".formatted(rel.category(), rel.slug())
             : "/%s/%s/%s.html".formatted(locale, rel.category(), rel.slug());
@@ -389,18 +2739,18 @@ String renderRelatedCard(String tpl, Snippet rel, String locale, Map<String, Str
             Map.entry("catDisplay", rel.catDisplay()), Map.entry("difficulty", rel.difficulty()),
             Map.entry("difficultyDisplay", difficultyDisplay(rel.difficulty(), strings)),
             Map.entry("title", escape(rel.title())),
-            Map.entry("oldLabel", escape(rel.oldLabel())), Map.entry("oldCode", escape(rel.oldCode())),
-            Map.entry("modernLabel", escape(rel.modernLabel())), Map.entry("modernCode", escape(rel.modernCode())),
+            Map.entry("oldLabel", f.oldLabel()), Map.entry("oldCode", f.oldCode()),
+            Map.entry("modernLabel", f.modernLabel()), Map.entry("modernCode", f.modernCode()),
             Map.entry("jdkVersion", rel.jdkVersion()), Map.entry("relatedHref", relatedHref),
             Map.entry("cards.hoverHintRelated", strings.getOrDefault("cards.hoverHintRelated", "Hover to see modern ➜"))));
 }
 
-String renderDocLinks(String tpl, JsonNode docs) {
+String renderDocLinks(String tpl, DocLink[] docs) {
     var links = new ArrayList<String>();
     for (var d : docs)
         links.add(replaceTokens(tpl, Map.of(
-                "docTitle", escape(d.get("title").asText()),
-                "docHref", d.get("href").asText())));
+                "docTitle", escape(d.title()),
+                "docHref", d.href())));
     return String.join("\n", links);
 }
 
@@ -411,12 +2761,17 @@ String slugToPascalCase(String slug) {
             .collect(Collectors.joining());
 }
 
-String renderProofSection(Snippet s, Map<String, String> strings) {
+/** Link to the proof file on GitHub, or null if the snippet has none */
+String proofUrl(Snippet s, FileIndex files) {
     var pascal = slugToPascalCase(s.slug());
-    var proofFile = Path.of("proof", s.category(), pascal + ".java");
-    if (!Files.exists(proofFile)) return "";
-    var proofUrl = "https://github.com/javaevolved/javaevolved.github.io/blob/main/proof/%s/%s.java"
+    var proofFile = Path.of(PROOF_DIR, s.category(), pascal + ".java");
+    if (!files.contains(proofFile)) return null;
+    return "https://github.com/javaevolved/javaevolved.github.io/blob/main/proof/%s/%s.java"
             .formatted(s.category(), pascal);
+}
+
+String renderProofSection(String proofUrl, Map<String, String> strings) {
+    if (proofUrl == null) return "";
     var label = strings.getOrDefault("sections.proof", "Proof");
     var linkText = strings.getOrDefault("sections.proofLink", "View proof source");
     return """
@@ -428,9 +2783,331 @@ String renderProofSection(Snippet s, Map<String, String> strings) {
     </section>""".formatted(label, proofUrl, linkText);
 }
 
-String renderRelatedSection(String tpl, Snippet snippet, Map<String, Snippet> all, String locale, Map<String, String> strings) {
-    return snippet.related().stream().filter(all::containsKey)
-            .map(p -> renderRelatedCard(tpl, all.get(p), locale, strings))
+/** One JMH measurement: primary score (throughput) and bytes allocated per operation, NaN if not profiled */
+record PerfMeasure(double score, double error, String unit, double allocPerOp) {
+    static PerfMeasure from(JsonNode entry) {
+        var primary = entry.path("primaryMetric");
+        var alloc = entry.path("secondaryMetrics").path("gc.alloc.rate.norm").path("score");
+        return new PerfMeasure(primary.path("score").asDouble(), primary.path("scoreError").asDouble(),
+                primary.path("scoreUnit").asText(), alloc.isNumber() ? alloc.asDouble() : Double.NaN);
+    }
+
+    Map<String, Object> toJson() {
+        var map = new LinkedHashMap<String, Object>();
+        map.put("score", score);
+        map.put("error", error);
+        map.put("unit", unit);
+        if (!Double.isNaN(allocPerOp)) map.put("allocBytesPerOp", allocPerOp);
+        return map;
+    }
+}
+
+/** Old and modern measurements for one combination of @Param values */
+record PerfRow(SequencedMap<String, String> params, PerfMeasure old, PerfMeasure modern) {
+}
+
+/** JFR allocation and GC summary of one variant: sampled bytes per op and per second, GC pauses, top types */
+record AllocMeasure(double bytesPerOp, double bytesPerSecond, int gcCount, double gcPauseMillis,
+                    double gcMaxPauseMillis, SequencedMap<String, Double> topTypeShares) {
+    static AllocMeasure from(JsonNode node) {
+        var total = node.path("allocBytes").asDouble();
+        var shares = new LinkedHashMap<String, Double>();
+        for (var type : node.path("topTypes")) {
+            shares.put(type.path("type").asText(), total > 0 ? type.path("bytes").asDouble() / total : 0);
+        }
+        return new AllocMeasure(node.path("allocBytesPerOp").asDouble(), node.path("allocBytesPerSecond").asDouble(),
+                node.path("gcCount").asInt(), node.path("gcPauseMillis").asDouble(),
+                node.path("gcMaxPauseMillis").asDouble(), shares);
+    }
+
+    Map<String, Object> toJson() {
+        var map = new LinkedHashMap<String, Object>();
+        map.put("allocBytesPerOp", bytesPerOp);
+        map.put("allocBytesPerSecond", bytesPerSecond);
+        map.put("gcCount", gcCount);
+        map.put("gcPauseMillis", gcPauseMillis);
+        map.put("gcMaxPauseMillis", gcMaxPauseMillis);
+        map.put("topTypes", topTypeShares);
+        return map;
+    }
+}
+
+/** Old and modern allocation profiles for one combination of @Param values */
+record AllocRow(SequencedMap<String, String> params, AllocMeasure old, AllocMeasure modern) {
+}
+
+/** JFR allocation report for one pattern, from perf/results/{category}/{slug}.alloc.json */
+record AllocProfile(String jdkVersion, String gc, List<AllocRow> rows) {
+    Map<String, Object> toJson() {
+        var map = new LinkedHashMap<String, Object>();
+        map.put("jdkVersion", jdkVersion);
+        map.put("gc", gc);
+        map.put("results", rows.stream().map(r -> {
+            var row = new LinkedHashMap<String, Object>();
+            row.put("params", r.params());
+            row.put("old", r.old().toJson());
+            row.put("modern", r.modern().toJson());
+            return row;
+        }).toList());
+        return map;
+    }
+}
+
+/**
+ * JMH results for one pattern, from perf/results/{category}/{slug}.json and its
+ * .host.json, plus the JFR allocation report if one was recorded (null if not)
+ */
+record PerfResult(String jdkVersion, String vmVersion, String hardware, List<PerfRow> rows, AllocProfile alloc) {
+    Map<String, Object> toJson() {
+        var map = new LinkedHashMap<String, Object>();
+        map.put("jdkVersion", jdkVersion);
+        map.put("vmVersion", vmVersion);
+        map.put("hardware", hardware);
+        map.put("results", rows.stream().map(r -> {
+            var row = new LinkedHashMap<String, Object>();
+            row.put("params", r.params());
+            row.put("old", r.old().toJson());
+            row.put("modern", r.modern().toJson());
+            return row;
+        }).toList());
+        if (alloc != null) map.put("allocationProfile", alloc.toJson());
+        return map;
+    }
+}
+
+/**
+ * Load JMH JSON results keyed by category/slug. Only throughput runs of the
+ * oldCode/modernCode benchmark pair are used; a pattern without both is skipped.
+ */
+Map<String, PerfResult> loadBenchmarks(Path dir) throws IOException {
+    var results = new HashMap<String, PerfResult>();
+    if (dir == null) return results;
+    if (!Files.isDirectory(dir)) {
+        IO.println("[WARN] Benchmark directory %s not found — no performance sections".formatted(dir));
+        return results;
+    }
+    List<Path> files;
+    try (var walk = Files.walk(dir, 2)) {
+        files = walk.filter(p -> p.getNameCount() == dir.getNameCount() + 2)
+                .filter(p -> p.toString().endsWith(".json"))
+                .filter(p -> p.getFileName().toString().indexOf('.') == p.getFileName().toString().lastIndexOf('.'))
+                .sorted()
+                .toList();
+    }
+    for (var file : files) {
+        var category = file.getParent().getFileName().toString();
+        var slug = file.getFileName().toString().replaceFirst("\\.json$", "");
+        try {
+            var result = parseBenchmark(JSON_MAPPER.readTree(file.toFile()), file.resolveSibling(slug + ".host.json"),
+                    file.resolveSibling(slug + ".alloc.json"));
+            if (result != null) results.put(category + "/" + slug, result);
+        } catch (IOException e) {
+            IO.println("[WARN] Failed to read benchmark results %s: %s".formatted(file, e.getMessage()));
+        }
+    }
+    IO.println("Loaded benchmark results for %d patterns from %s".formatted(results.size(), dir));
+    return results;
+}
+
+PerfResult parseBenchmark(JsonNode entries, Path hostFile, Path allocFile) throws IOException {
+    var old = new LinkedHashMap<SequencedMap<String, String>, PerfMeasure>();
+    var modern = new LinkedHashMap<SequencedMap<String, String>, PerfMeasure>();
+    String jdkVersion = null, vmVersion = null;
+    for (var entry : entries) {
+        if (!entry.path("mode").asText().equals("thrpt")) continue;
+        var name = entry.path("benchmark").asText();
+        var method = name.substring(name.lastIndexOf('.') + 1);
+        var params = new LinkedHashMap<String, String>();
+        entry.path("params").properties().forEach(e -> params.put(e.getKey(), e.getValue().asText()));
+        switch (method) {
+            case "oldCode" -> old.put(params, PerfMeasure.from(entry));
+            case "modernCode" -> modern.put(params, PerfMeasure.from(entry));
+            default -> { continue; }
+        }
+        jdkVersion = entry.path("jdkVersion").asText();
+        vmVersion = entry.path("vmVersion").asText();
+    }
+    var rows = old.entrySet().stream()
+            .filter(e -> modern.containsKey(e.getKey()))
+            .map(e -> new PerfRow(e.getKey(), e.getValue(), modern.get(e.getKey())))
+            .toList();
+    if (rows.isEmpty()) return null;
+
+    String hardware = null;
+    if (Files.exists(hostFile)) {
+        var host = JSON_MAPPER.readTree(hostFile.toFile());
+        hardware = "%s · %d CPUs · %s %s".formatted(host.path("cpu").asText(), host.path("cpus").asInt(),
+                host.path("os").asText(), host.path("arch").asText());
+    }
+    var alloc = Files.exists(allocFile) ? parseAllocProfile(JSON_MAPPER.readTree(allocFile.toFile())) : null;
+    return new PerfResult(jdkVersion, vmVersion, hardware, rows, alloc);
+}
+
+/** The JFR report written by perf/Lab.java --alloc; null if it has no results */
+AllocProfile parseAllocProfile(JsonNode report) {
+    var rows = new ArrayList<AllocRow>();
+    for (var entry : report.path("results")) {
+        var params = new LinkedHashMap<String, String>();
+        entry.path("params").properties().forEach(e -> params.put(e.getKey(), e.getValue().asText()));
+        rows.add(new AllocRow(params, AllocMeasure.from(entry.path("old")), AllocMeasure.from(entry.path("modern"))));
+    }
+    return rows.isEmpty() ? null
+            : new AllocProfile(report.path("jdkVersion").asText(), report.path("gc").asText(), rows);
+}
+
+/**
+ * Render the performance section of every benchmarked pattern once per locale,
+ * so each page only looks its section up by category/slug.
+ */
+Map<String, String> renderPerfSections(Map<String, PerfResult> benchmarks, Map<String, Snippet> allSnippets,
+                                       Map<String, String> strings) {
+    var sections = new HashMap<String, String>();
+    benchmarks.forEach((key, result) -> {
+        var snippet = allSnippets.get(key);
+        if (snippet != null) sections.put(key, renderPerfSection(snippet, result, strings));
+    });
+    return sections;
+}
+
+String renderPerfSection(Snippet s, PerfResult result, Map<String, String> strings) {
+    var rows = new StringBuilder();
+    for (var row : result.rows()) {
+        var max = Math.max(row.old().score(), row.modern().score());
+        var oldWidth = max > 0 ? 100 * row.old().score() / max : 0;
+        var modernWidth = max > 0 ? 100 * row.modern().score() / max : 0;
+        var params = row.params().isEmpty() ? "—" : row.params().entrySet().stream()
+                .map(e -> escape(e.getKey()) + " = " + escape(e.getValue()))
+                .collect(Collectors.joining(", "));
+        var ratio = row.old().score() > 0
+                ? String.format(Locale.ROOT, "%.2f×", row.modern().score() / row.old().score()) : "";
+        rows.append(String.format(Locale.ROOT, """
+                  <tr>
+                    <td class="perf-param">%s</td>
+                    <td class="perf-throughput">
+                      <svg class="perf-bars" viewBox="0 0 100 20" preserveAspectRatio="none" aria-hidden="true"><rect class="perf-bar old" x="0" y="1" width="%.1f" height="8"/><rect class="perf-bar modern" x="0" y="11" width="%.1f" height="8"/></svg>
+                      <div class="perf-value old"><span class="perf-label">%s</span> %s %s</div>
+                      <div class="perf-value modern"><span class="perf-label">%s</span> %s %s <span class="perf-ratio">%s</span></div>
+                    </td>
+                    <td class="perf-alloc">
+                      <div class="perf-value old">%s</div>
+                      <div class="perf-value modern">%s</div>
+                    </td>
+                  </tr>
+            """, params, oldWidth, modernWidth,
+                escape(s.oldLabel()), formatScore(row.old().score()), escape(row.old().unit()),
+                escape(s.modernLabel()), formatScore(row.modern().score()), escape(row.modern().unit()), ratio,
+                formatAlloc(row.old().allocPerOp()), formatAlloc(row.modern().allocPerOp())));
+    }
+    var environment = "JDK %s (%s)".formatted(escape(result.jdkVersion()), escape(result.vmVersion()))
+            + (result.hardware() != null ? " · " + escape(result.hardware()) : "");
+    var allocTable = result.alloc() != null ? renderAllocTable(s, result.alloc(), strings) : "";
+    // Starts with its own blank line: the template places {{perfSection}} directly after {{proofSection}}
+    return """
+
+
+    <section class="perf-section">
+      <div class="section-label">%s</div>
+      <table class="perf-table">
+        <thead>
+          <tr><th>%s</th><th>%s</th><th>%s</th></tr>
+        </thead>
+        <tbody>
+    %s    </tbody>
+      </table>
+      <p class="perf-meta">%s %s</p>%s
+    </section>""".formatted(
+            strings.getOrDefault("sections.performance", "Performance"),
+            strings.getOrDefault("perf.input", "Input"),
+            strings.getOrDefault("perf.throughput", "Throughput"),
+            strings.getOrDefault("perf.allocation", "Allocated per op"),
+            rows,
+            strings.getOrDefault("perf.measuredOn", "Measured with JMH on"),
+            environment,
+            allocTable);
+}
+
+/** The JFR allocation report: allocation rate, GC pauses and top allocating types of each variant */
+String renderAllocTable(Snippet s, AllocProfile alloc, Map<String, String> strings) {
+    var rows = new StringBuilder();
+    for (var row : alloc.rows()) {
+        var params = row.params().isEmpty() ? "—" : row.params().entrySet().stream()
+                .map(e -> escape(e.getKey()) + " = " + escape(e.getValue()))
+                .collect(Collectors.joining(", "));
+        rows.append(String.format(Locale.ROOT, """
+                  <tr>
+                    <td class="perf-param">%s</td>
+                    <td class="perf-alloc-rate">
+                      <div class="perf-value old"><span class="perf-label">%s</span> %s</div>
+                      <div class="perf-value modern"><span class="perf-label">%s</span> %s</div>
+                    </td>
+                    <td class="perf-gc">
+                      <div class="perf-value old">%s</div>
+                      <div class="perf-value modern">%s</div>
+                    </td>
+                    <td class="perf-types">
+                      <div class="perf-value old">%s</div>
+                      <div class="perf-value modern">%s</div>
+                    </td>
+                  </tr>
+            """, params,
+                escape(s.oldLabel()), formatRate(row.old().bytesPerSecond()),
+                escape(s.modernLabel()), formatRate(row.modern().bytesPerSecond()),
+                formatPauses(row.old()), formatPauses(row.modern()),
+                formatTypes(row.old()), formatTypes(row.modern())));
+    }
+    return """
+
+      <table class="perf-table perf-alloc-table">
+        <caption>%s</caption>
+        <thead>
+          <tr><th>%s</th><th>%s</th><th>%s</th><th>%s</th></tr>
+        </thead>
+        <tbody>
+    %s    </tbody>
+      </table>
+      <p class="perf-meta">%s JDK %s · %s</p>""".formatted(
+            strings.getOrDefault("perf.allocationProfile", "Allocation profile"),
+            strings.getOrDefault("perf.input", "Input"),
+            strings.getOrDefault("perf.allocationRate", "Allocation rate"),
+            strings.getOrDefault("perf.gcPauses", "GC pauses"),
+            strings.getOrDefault("perf.topTypes", "Top allocating types"),
+            rows,
+            strings.getOrDefault("perf.recordedOn", "Recorded with JFR on"),
+            escape(alloc.jdkVersion()), escape(alloc.gc()));
+}
+
+String formatScore(double score) {
+    return String.format(Locale.ROOT, score >= 100 ? "%,.0f" : score >= 10 ? "%,.1f" : "%,.3f", score);
+}
+
+String formatAlloc(double bytes) {
+    return Double.isNaN(bytes) ? "—" : String.format(Locale.ROOT, "%,.0f B", bytes);
+}
+
+String formatRate(double bytesPerSecond) {
+    return String.format(Locale.ROOT, "%,.1f MB/s", bytesPerSecond / 1_000_000);
+}
+
+/** "12 · 3.4 ms (max 0.8 ms)": collections during the measured phase and their total and longest pause */
+String formatPauses(AllocMeasure m) {
+    return m.gcCount() == 0 ? "0"
+            : String.format(Locale.ROOT, "%d · %.1f ms (max %.1f ms)", m.gcCount(), m.gcPauseMillis(), m.gcMaxPauseMillis());
+}
+
+/** Up to three largest allocating types by simple name with their share, e.g. "Object[] 87%, ArrayList 5%" */
+String formatTypes(AllocMeasure m) {
+    return m.topTypeShares().entrySet().stream()
+            .filter(e -> e.getValue() >= 0.01)
+            .limit(3)
+            .map(e -> String.format(Locale.ROOT, "<code>%s</code> %.0f%%",
+                    escape(e.getKey().substring(e.getKey().lastIndexOf('.') + 1)), 100 * e.getValue()))
+            .collect(Collectors.joining(", "));
+}
+
+String renderRelatedSection(String tpl, Snippet snippet, Map<String, Snippet> all,
+                            Map<String, SnippetFragments> fragments, String locale, Map<String, String> strings) {
+    return Arrays.stream(snippet.related()).filter(all::containsKey)
+            .map(p -> renderRelatedCard(tpl, all.get(p), fragments.get(p), locale, strings))
             .collect(Collectors.joining("\n"));
 }
 
@@ -466,7 +3143,10 @@ Map<String, String> buildContributeUrls(Snippet s, String locale, String localeN
             "contributeSuggestUrl", suggestUrl);
 }
 
-String generateHtml(Templates tpl, Snippet s, Map<String, Snippet> all, Map<String, String> extraTokens, String locale) throws IOException {
+/** Render a detail page as UTF-8, as returned by {@link TemplateRenderer#renderUtf8} */
+ByteBuffer[] generateHtml(Templates tpl, Snippet s, Map<String, Snippet> all, Map<String, SnippetFragments> fragments,
+                          Map<String, String> extraTokens, String locale) throws IOException {
+    var f = fragments.get(s.key());
     var isEnglish = locale.equals("en");
     var canonicalUrl = isEnglish
             ? "%s/%s/%s.html".formatted(BASE_URL, s.category(), s.slug())
@@ -479,70 +3159,70 @@ String generateHtml(Templates tpl, Snippet s, Map<String, Snippet> all, Map<Stri
             Map.entry("categoryDisplay", s.catDisplay()), Map.entry("difficulty", s.difficulty()),
             Map.entry("difficultyDisplay", difficultyDisplay(s.difficulty(), extraTokens)),
             Map.entry("jdkVersion", s.jdkVersion()),
-            Map.entry("oldLabel", escape(s.oldLabel())), Map.entry("modernLabel", escape(s.modernLabel())),
-            Map.entry("oldCode", escape(s.oldCode())), Map.entry("modernCode", escape(s.modernCode())),
+            Map.entry("oldLabel", f.oldLabel()), Map.entry("modernLabel", f.modernLabel()),
+            Map.entry("oldCode", f.oldCode()), Map.entry("modernCode", f.modernCode()),
             Map.entry("oldApproach", escape(s.oldApproach())), Map.entry("modernApproach", escape(s.modernApproach())),
             Map.entry("explanation", escape(s.explanation())),
             Map.entry("supportDescription", escape(s.supportDesc())),
             Map.entry("supportBadge", supportBadge(s.supportState(), extraTokens)),
             Map.entry("supportBadgeClass", supportBadgeClass(s.supportState())),
             Map.entry("canonicalUrl", canonicalUrl),
-            Map.entry("flatUrl", "%s/%s.html".formatted(BASE_URL, s.slug())),
+            Map.entry("flatUrl", f.flatUrl()),
             Map.entry("titleJson", jsonEscape(s.title())), Map.entry("summaryJson", jsonEscape(s.summary())),
-            Map.entry("categoryDisplayJson", jsonEscape(s.catDisplay())),
+            Map.entry("categoryDisplayJson", f.categoryDisplayJson()),
             Map.entry("navArrows", renderNavArrows(s, locale)),
+            Map.entry("prefetchHints", renderPrefetchHints(s, all, locale)),
             Map.entry("whyCards", renderWhyCards(tpl.whyCard(), s.whyModernWins())),
-            Map.entry("docLinks", renderDocLinks(tpl.docLink(), s.node().withArray("docs"))),
-            Map.entry("proofSection", renderProofSection(s, extraTokens)),
-            Map.entry("relatedCards", renderRelatedSection(tpl.relatedCard(), s, all, locale, extraTokens)),
+            Map.entry("docLinks", f.docLinks()),
+            Map.entry("proofSection", renderProofSection(f.proofUrl(), extraTokens)),
+            Map.entry("relatedCards", renderRelatedSection(tpl.relatedCard(), s, all, fragments, locale, extraTokens)),
             Map.entry("socialShare", renderSocialShare(tpl.socialShare(), s.slug(), s.title(), extraTokens))));
     var localeName = LOCALES.getOrDefault(locale, locale);
     tokens.putAll(buildContributeUrls(s, locale, localeName));
-    return replaceTokens(tpl.page(), tokens);
+    return tpl.pageRenderer().renderUtf8(tokens);
 }
 
-/** Translatable field names — only these are merged from translation files */
-static final Set<String> TRANSLATABLE_FIELDS = Set.of(
-    "title", "summary", "explanation", "oldApproach", "modernApproach", "whyModernWins", "support"
-);
-
 /**
- * Overlay translated content onto the English base.
- * Translation files contain only translatable fields; everything else
- * (id, slug, category, difficulty, code, navigation, docs, etc.)
- * is always taken from the English source of truth.
+ * Load the translation overlays of every given locale in one parallel pass,
+ * keyed by locale and then by category/slug. Translation files contain only
+ * translatable fields; everything else (id, slug, category, difficulty, code,
+ * navigation, docs, etc.) is always taken from the English source of truth.
+ * A file that fails to parse is reported with its path, and its pattern falls
+ * back to English.
  */
-Snippet resolveSnippet(Snippet englishSnippet, String locale) {
-    if (locale.equals("en")) return englishSnippet;
-
-    var translatedDir = Path.of(TRANSLATIONS_DIR, "content", locale, englishSnippet.category());
-    var translatedFile = findWithExtensions(translatedDir, englishSnippet.slug());
-    if (translatedFile.isEmpty()) return englishSnippet;
+Map<String, Map<String, Translation>> loadTranslations(List<String> locales,
+                                                       SequencedMap<String, Snippet> allSnippets,
+                                                       CorpusCache cache, FileIndex files) {
+    record Target(String locale, String key, FileIndex.Entry file) {}
+    var targets = new ArrayList<Target>();
+    for (var locale : locales) {
+        if (locale.equals("en")) continue;
+        for (var snippet : allSnippets.values()) {
+            var translatedDir = Path.of(TRANSLATIONS_DIR, "content", locale, snippet.category());
+            findWithExtensions(files, translatedDir, snippet.slug())
+                    .ifPresent(file -> targets.add(new Target(locale, snippet.key(), file)));
+        }
+    }
+    var loaded = targets.parallelStream()
+            .map(t -> parseFile(t.file(), cache, CorpusCache.Kind.TRANSLATION, Translation::from))
+            .toList();
 
-    try {
-        var translatedNode = (com.fasterxml.jackson.databind.node.ObjectNode) readAuto(translatedFile.get());
-        // Start from a copy of the English node
-        var merged = englishSnippet.node().deepCopy();
-        // Overlay only translatable fields from the translation file
-        for (var field : TRANSLATABLE_FIELDS) {
-            if (translatedNode.has(field)) {
-                if (field.equals("support") && translatedNode.get("support").isObject()) {
-                    // For support, only merge "description" — keep "state" from English
-                    var translatedSupport = translatedNode.get("support");
-                    if (translatedSupport.has("description")) {
-                        ((com.fasterxml.jackson.databind.node.ObjectNode) merged.get("support"))
-                                .put("description", translatedSupport.get("description").asText());
-                    }
-                } else {
-                    ((com.fasterxml.jackson.databind.node.ObjectNode) merged).set(field, translatedNode.get(field));
-                }
-            }
+    var overlays = new HashMap<String, Map<String, Translation>>();
+    for (var locale : locales) overlays.put(locale, new HashMap<>());
+    for (int i = 0; i < targets.size(); i++) {
+        var parsed = loaded.get(i);
+        if (parsed.error() != null) {
+            IO.println("[WARN] Failed to load %s — using English: %s".formatted(parsed.path(), parsed.error()));
+        } else {
+            overlays.get(targets.get(i).locale()).put(targets.get(i).key(), parsed.value());
         }
-        return new Snippet(merged);
-    } catch (IOException e) {
-        IO.println("[WARN] Failed to load %s — using English".formatted(translatedFile.get()));
-        return englishSnippet;
     }
+    return overlays;
+}
+
+/** Overlay translated content onto the English base */
+Snippet resolveSnippet(Snippet englishSnippet, Map<String, Translation> translations) {
+    return englishSnippet.withOverlay(translations.get(englishSnippet.key()));
 }
 
 /** Render hreflang <link> tags for all locales */
@@ -619,10 +3299,14 @@ String jsEscape(String s) {
     return s.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
 }
 
-String replaceTokens(String template, Map<String, String> replacements) {
+static String replaceTokens(String template, Map<String, String> replacements) {
+    return replaceTokens(template, replacements, 3);
+}
+
+static String replaceTokens(String template, Map<String, String> replacements, int passes) {
     // Loop to handle tokens within replacement values (e.g., {{snippetCount}} inside i18n strings)
     var result = template;
-    for (int pass = 0; pass < 3; pass++) {
+    for (int pass = 0; pass < passes; pass++) {
         var m = TOKEN.matcher(result);
         var sb = new StringBuilder();
         boolean found = false;
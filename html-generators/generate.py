@@ -1,7 +1,8 @@
 #!/usr/bin/env python3
 """
 Generate HTML detail pages from JSON snippet files and slug-template.html.
-Python equivalent of generate.java — produces identical output.
+Python equivalent of generate.java — same pages, except social cards, font
+subsets and the performance section, which only generate.java produces.
 """
 
 import argparse
@@ -9,6 +10,7 @@ import copy
 import json
 import yaml
 import glob
+import hashlib
 import os
 import html as html_mod
 import re
@@ -284,6 +286,35 @@ def render_nav_arrows(data, locale):
     return prev_html + "\n          " + next_html
 
 
+# Pages prefetched from a detail page, so the likeliest next clicks cost at most this many requests
+PREFETCH_BUDGET = 3
+
+
+def prefetch_targets(data, all_snippets):
+    """The pages a reader most likely opens from this one: next, previous, then related, within the budget."""
+    targets = []
+    for key in [_opt(data, "next"), _opt(data, "prev")] + list(data.get("related", [])):
+        if key and key in all_snippets and key != _key(data) and key not in targets:
+            targets.append(key)
+    return targets[:PREFETCH_BUDGET]
+
+
+def render_prefetch_hints(data, all_snippets, locale):
+    """Speculation rules that let the browser prefetch the prefetch targets."""
+    prefix = "" if locale == "en" else f"/{locale}"
+    urls = ",".join(f'"{prefix}/{key}.html"' for key in prefetch_targets(data, all_snippets))
+    if not urls:
+        return ""
+    return f'  <script type="speculationrules">{{"prefetch":[{{"source":"list","urls":[{urls}]}}]}}</script>'
+
+
+def render_nav_graph(all_snippets):
+    """Every page's prefetch targets as compact JSON, for app.js to prefetch on hover."""
+    pages = {_key(s): prefetch_targets(s, all_snippets) for s in all_snippets.values()}
+    graph = {"budget": PREFETCH_BUDGET, "pages": pages}
+    return json.dumps(graph, separators=(",", ":"), ensure_ascii=False) + "\n"
+
+
 def render_why_cards(tpl, why_list):
     """Render the 3 why-modern-wins cards."""
     cards = []
@@ -544,9 +575,16 @@ def generate_html(templates, data, all_snippets, extra_tokens, locale):
         "summaryJson": json_escape(data["summary"]),
         "categoryDisplayJson": json_escape(cat_display),
         "navArrows": render_nav_arrows(data, locale),
+        "prefetchHints": render_prefetch_hints(data, all_snippets, locale),
         "whyCards": render_why_cards(templates["why_card"], data["whyModernWins"]),
         "docLinks": render_doc_links(templates["doc_link"], data.get("docs", [])),
         "proofSection": render_proof_section(data, extra_tokens),
+        # Benchmark results are only rendered by generate.java (--benchmarks <dir>)
+        "perfSection": "",
+        # Per-pattern social cards are only rendered by generate.java (Java2D)
+        "ogImage": f"{BASE_URL}/images/social-card.png",
+        # Font subsets are only produced by generate.java (pyftsubset)
+        "fontFaces": FULL_FONT_FACES,
         "relatedCards": render_related_section(
             templates["related_card"], data, all_snippets, locale, extra_tokens
         ),
@@ -565,7 +603,7 @@ def generate_html(templates, data, all_snippets, extra_tokens, locale):
 # Build a single locale
 # ---------------------------------------------------------------------------
 
-def build_locale(locale, templates, all_snippets):
+def build_locale(locale, templates, all_snippets, assets):
     """Build all HTML files for a single locale."""
     is_english = locale == "en"
     strings = load_strings(locale)
@@ -621,16 +659,22 @@ def build_locale(locale, templates, all_snippets):
         else os.path.join(SITE_DIR, locale, "data")
     )
     os.makedirs(data_dir, exist_ok=True)
+    snippets_json = json.dumps(snippets_list, indent=2, ensure_ascii=False) + "\n"
     with open(os.path.join(data_dir, "snippets.json"), "w") as f:
-        json.dump(snippets_list, f, indent=2, ensure_ascii=False)
-        f.write("\n")
+        f.write(snippets_json)
+    # Navigation is the same in every locale, so one graph at the site root serves them all
+    if is_english:
+        with open(os.path.join(data_dir, "nav-graph.json"), "w") as f:
+            f.write(render_nav_graph(all_snippets))
     print(f"Rebuilt data/snippets.json for {locale} with {len(snippets_list)} entries")
 
-    # Generate index.html from template
-    tip_cards = "\n".join(
-        render_index_card(templates["index_card"], resolve_snippet(s, locale), locale, strings)
+    # Generate index.html from template: the first screen of cards inline, the rest in per-category chunks
+    cards = [
+        (s["category"], render_index_card(templates["index_card"], resolve_snippet(s, locale), locale, strings))
         for s in all_snippets.values()
-    )
+    ]
+    chunk_url = "/data/cards/" if is_english else f"/{locale}/data/cards/"
+    tip_cards = chunk_index_cards(cards, os.path.join(data_dir, "cards"), chunk_url)
 
     index_tokens = dict(strings)
     index_tokens.update({
@@ -645,6 +689,8 @@ def build_locale(locale, templates, all_snippets):
         "localePicker": locale_picker_html,
         "hreflangLinks": index_hreflang,
         "i18nScript": i18n_script,
+        "fontFaces": FULL_FONT_FACES,
+        "fontPreloads": FULL_FONT_PRELOADS,
     })
 
     index_html = replace_tokens(templates["index"], index_tokens)
@@ -656,7 +702,93 @@ def build_locale(locale, templates, all_snippets):
         index_path = os.path.join(index_dir, "index.html")
     with open(index_path, "w") as f:
         f.write(index_html)
-    print(f"Generated index.html for {locale} with {len(all_snippets)} cards")
+    print(f"Generated index.html for {locale} with {len(all_snippets)} cards "
+          f"({min(len(all_snippets), INDEX_INLINE_CARDS)} inline)")
+
+    # The service worker precaches the shared assets plus this locale's home page and search data
+    precache = dict(assets)
+    # Pages use the full fonts here; generate.java precaches its per-locale subsets instead
+    precache.update(asset_revisions(FULL_FONT_FILES))
+    precache[home_url] = revision(index_html.encode("utf-8"))
+    precache[home_url + "data/snippets.json"] = revision(snippets_json.encode("utf-8"))
+    sw_dir = SITE_DIR if is_english else os.path.join(SITE_DIR, locale)
+    with open(os.path.join(sw_dir, "sw.js"), "w") as f:
+        f.write(render_service_worker(templates["service_worker"], locale, home_url, precache))
+
+
+# Web fonts as (family, file, weight); generate.java can also subset them per locale
+WEB_FONTS = [("Inter", "inter", "100 900"), ("JetBrains Mono", "jetbrains-mono", "400 700")]
+FULL_FONT_FACES = "\n".join(
+    f"    @font-face{{font-family:'{family}';font-style:normal;font-weight:{weight};font-display:swap;"
+    f"src:url('/assets/fonts/{file}.woff2') format('woff2')}}"
+    for family, file, weight in WEB_FONTS
+)
+FULL_FONT_PRELOADS = "\n".join(
+    f'  <link rel="preload" href="/assets/fonts/{file}.woff2" as="font" type="font/woff2" crossorigin>'
+    for _, file, _ in WEB_FONTS
+)
+FULL_FONT_FILES = [f"assets/fonts/{file}.woff2" for _, file, _ in WEB_FONTS]
+
+
+# Static files that every locale's service worker precaches, besides the fonts
+PRECACHED_ASSETS = ["styles.css", "app.js"]
+
+
+def asset_revisions(assets=PRECACHED_ASSETS):
+    """URL and content revision of each given static file in the site directory."""
+    revisions = {}
+    for asset in assets:
+        path = os.path.join(SITE_DIR, asset)
+        if os.path.isfile(path):
+            with open(path, "rb") as f:
+                revisions["/" + asset] = revision(f.read())
+    return revisions
+
+
+def revision(content):
+    """First 12 hex digits of the SHA-256 of the content bytes."""
+    return hashlib.sha256(content).hexdigest()[:12]
+
+
+def render_service_worker(tpl, locale, scope, precache):
+    """Render a locale's sw.js; the cache name is derived from the manifest."""
+    manifest = "\n".join(
+        f"  {{ url: '{url}', revision: '{rev}' }}," for url, rev in precache.items()
+    )
+    return replace_tokens(tpl, {
+        "locale": locale,
+        "scope": scope,
+        "precacheHash": revision(manifest.encode("utf-8")),
+        "precacheManifest": manifest,
+    })
+
+
+# Cards rendered into index.html itself: enough for the first screen, independent of the catalogue size
+INDEX_INLINE_CARDS = 24
+
+
+def chunk_index_cards(cards, chunk_dir, chunk_url):
+    """Keep the first INDEX_INLINE_CARDS (category, html) cards inline and write
+    the rest to {chunk_dir}/{category}.html, leaving a placeholder per chunk
+    that app.js replaces with the fetched cards."""
+    html = [card for _, card in cards[:INDEX_INLINE_CARDS]]
+    chunks = {}
+    for category, card in cards[INDEX_INLINE_CARDS:]:
+        chunks.setdefault(category, []).append(card)
+    # Drop chunks of an earlier build, e.g. for a category that now fits inline
+    if os.path.isdir(chunk_dir):
+        for name in os.listdir(chunk_dir):
+            if name.endswith(".html"):
+                os.remove(os.path.join(chunk_dir, name))
+    for category, chunk in chunks.items():
+        os.makedirs(chunk_dir, exist_ok=True)
+        with open(os.path.join(chunk_dir, f"{category}.html"), "w") as f:
+            f.write("\n".join(chunk) + "\n")
+        html.append(
+            f'      <div class="card-chunk" data-category="{category}" '
+            f'data-src="{chunk_url}{category}.html" hidden></div>'
+        )
+    return "\n".join(html)
 
 
 # ---------------------------------------------------------------------------
@@ -676,6 +808,7 @@ def load_templates():
         "index": _read("templates/index.html"),
         "index_card": _read("templates/index-card.html"),
         "doc_link": _read("templates/doc-link.html"),
+        "service_worker": _read("templates/sw.js"),
     }
 
 
@@ -698,8 +831,9 @@ def main():
     else:
         locales_to_build = list(LOCALES.keys())
 
+    assets = asset_revisions()
     for locale in locales_to_build:
-        build_locale(locale, templates, all_snippets)
+        build_locale(locale, templates, all_snippets, assets)
 
 
 if __name__ == "__main__":
@@ -0,0 +1,879 @@
+///usr/bin/env jbang "$0" "$@" ; exit $?
+//JAVA 25
+//JAVA_OPTIONS --enable-preview
+
+import module java.base;
+import module java.compiler;
+import com.sun.source.util.JavacTask;
+import java.lang.reflect.Modifier;
+
+/**
+ * Compile and run every proof file under proof/ inside one JVM.
+ *
+ * All //DEPS declared by proof files are resolved once with JBang into a
+ * shared classpath. Categories compile in parallel through javax.tools, each
+ * worker reusing one file manager for all proofs in its category, and class
+ * files are kept in memory. Each compiled proof is then loaded in its own
+ * class loader and its main method runs on a virtual thread with a timeout,
+ * with stdout/stderr captured per proof. Prints a pass/fail/duration line per
+ * proof and exits non-zero if any proof fails.
+ *
+ * Passing proofs are cached by a key over the proof source, the content file
+ * it proves, the JDK version, compiler flags and dependency set, so only new
+ * or edited proofs (or proofs whose content changed) are verified again.
+ *
+ * With --release-matrix, each proof is instead compiled against earlier
+ * --release levels to find the lowest release it compiles on, which is
+ * compared with the jdkVersion its content file declares.
+ */
+static final Path PROOF_DIR = Path.of("proof");
+static final Path CACHE_FILE = Path.of("html-generators", ".cache", "proof.txt");
+static final Path MATRIX_CACHE_FILE = Path.of("html-generators", ".cache", "proof-releases.txt");
+static final int RELEASE = Runtime.version().feature();
+static final List<String> BASE_OPTIONS = List.of(
+        "--release", String.valueOf(RELEASE), "--enable-preview", "-Xlint:-preview", "-proc:none");
+
+record Proof(Path path, String category, List<String> deps, List<String> javacOptions, Path source) {
+    String name() { return PROOF_DIR.relativize(path).toString().replace('\\', '/'); }
+}
+
+record CompileResult(Proof proof, boolean passed, long nanos, List<String> diagnostics,
+                     Map<String, byte[]> classes) {
+}
+
+enum RunStatus { PASSED, FAILED, TIMED_OUT }
+
+record RunResult(Proof proof, RunStatus status, long nanos, String stdout, String stderr, Throwable failure) {
+}
+
+/** A cached pass: the key it passed under, whether it was run or only compiled, and its content file */
+record CacheEntry(String key, String mode, String source) {
+}
+
+/** The lowest release a proof compiles on (null if not even the current one), and the releases tried */
+record MatrixResult(Proof proof, Integer declared, Integer lowest, SortedMap<Integer, Boolean> attempts,
+                    long nanos, boolean cached) {
+}
+
+/** Per-proof stdout/stderr buffers; inherited by threads the proof starts */
+record Capture(ByteArrayOutputStream out, ByteArrayOutputStream err) {
+}
+
+static final InheritableThreadLocal<Capture> CAPTURE = new InheritableThreadLocal<>();
+
+void main(String... args) throws IOException, InterruptedException {
+    var argList = List.of(args);
+    var verbose = argList.contains("--verbose") || argList.contains("-v");
+    var compileOnly = argList.contains("--compile-only");
+    var useCache = !argList.contains("--no-cache");
+    var timeout = Duration.ofSeconds(Long.parseLong(option(argList, "--timeout", "10")));
+    var parallelism = Integer.parseInt(option(argList, "--parallel",
+            String.valueOf(Runtime.getRuntime().availableProcessors())));
+    var filters = new ArrayList<String>();
+    for (int i = 0; i < args.length; i++) {
+        if (args[i].equals("--timeout") || args[i].equals("--parallel")) i++;
+        else if (!args[i].startsWith("-")) filters.add(args[i]);
+    }
+
+    // The dependency set always covers every proof, so filtered and full runs share cache keys
+    var allProofs = findProofs();
+    var proofs = allProofs.stream()
+            .filter(p -> filters.isEmpty() || filters.stream().anyMatch(f -> p.name().contains(f)))
+            .toList();
+    if (proofs.isEmpty()) {
+        System.err.println("No proof files found under " + PROOF_DIR);
+        System.exit(1);
+    }
+
+    // Everything a proof writes to java.io.tmpdir lands in one directory that is removed afterwards.
+    // Set before anything creates a temp file, because the JDK caches the temp directory on first use.
+    var runDir = Path.of(System.getProperty("java.io.tmpdir"), "proof-run-" + ProcessHandle.current().pid());
+    Files.createDirectories(runDir);
+    System.setProperty("java.io.tmpdir", runDir.toString());
+
+    boolean failed;
+    try {
+        if (argList.contains("--release-matrix")) {
+            failed = releaseMatrix(proofs, allProofs, useCache, verbose);
+        } else {
+            var start = System.nanoTime();
+            var cache = useCache ? readCache() : new TreeMap<String, CacheEntry>();
+            var depsKey = sha256(String.join("\n", dependencies(allProofs)).getBytes(StandardCharsets.UTF_8));
+            var keys = new HashMap<Proof, String>();
+            for (var proof : proofs) keys.put(proof, cacheKey(proof, depsKey));
+            var cached = proofs.stream()
+                    .filter(p -> isCachedPass(cache.get(p.name()), keys.get(p), compileOnly))
+                    .collect(Collectors.toSet());
+            var pending = proofs.stream().filter(p -> !cached.contains(p)).toList();
+
+            List<Path> classpath = List.of();
+            if (!pending.isEmpty()) {
+                classpath = resolveClasspath(allProofs);
+                System.out.printf("Resolved %d dependencies (%d classpath entries) in %d ms%n",
+                        dependencies(allProofs).size(), classpath.size(), (System.nanoTime() - start) / 1_000_000);
+            }
+
+            var compiled = compileAll(pending, classpath);
+            var runs = compileOnly ? List.<RunResult>of()
+                    : runAll(compiled.stream().filter(CompileResult::passed).toList(), classpath, timeout, parallelism);
+            report(proofs, cached, compiled, runs, verbose, System.nanoTime() - start);
+            failed = compiled.stream().anyMatch(r -> !r.passed())
+                    || runs.stream().anyMatch(r -> r.status() != RunStatus.PASSED);
+            if (useCache) writeCache(cache, allProofs, keys, compiled, runs, compileOnly);
+        }
+    } finally {
+        var removed = deleteRecursively(runDir);
+        if (removed > 1) System.out.printf("Removed %d temp files written by proofs%n", removed - 1);
+    }
+    // Exit explicitly: a timed-out proof or a pool it started may still hold non-daemon threads
+    System.exit(failed ? 1 : 0);
+}
+
+String option(List<String> args, String name, String defaultValue) {
+    var pos = args.indexOf(name);
+    return pos >= 0 && pos + 1 < args.size() ? args.get(pos + 1) : defaultValue;
+}
+
+/** All proof files, sorted by path */
+List<Proof> findProofs() throws IOException {
+    try (var walk = Files.walk(PROOF_DIR)) {
+        var paths = walk.filter(p -> Files.isRegularFile(p) && p.toString().endsWith(".java"))
+                .sorted()
+                .toList();
+        var proofs = new ArrayList<Proof>();
+        for (var path : paths) proofs.add(parseProof(path));
+        return proofs;
+    }
+}
+
+/** Read the JBang directives (//DEPS, //JAVAC_OPTIONS) and the /// Source: header of a proof file */
+Proof parseProof(Path path) throws IOException {
+    var deps = new ArrayList<String>();
+    var javacOptions = new ArrayList<String>();
+    Path source = null;
+    for (var line : Files.readAllLines(path)) {
+        if (line.startsWith("/// Source: ")) {
+            source = Path.of(line.substring("/// Source: ".length()).trim());
+        } else if (line.startsWith("//DEPS ")) {
+            deps.addAll(List.of(line.substring("//DEPS ".length()).trim().split("\\s+")));
+        } else if (line.startsWith("//JAVAC_OPTIONS ")) {
+            javacOptions.addAll(List.of(line.substring("//JAVAC_OPTIONS ".length()).trim().split("\\s+")));
+        }
+    }
+    var category = PROOF_DIR.relativize(path).getName(0).toString();
+    return new Proof(path, category, List.copyOf(deps), List.copyOf(javacOptions), source);
+}
+
+/** The union of all //DEPS coordinates, sorted */
+SortedSet<String> dependencies(List<Proof> proofs) {
+    var deps = new TreeSet<String>();
+    proofs.forEach(p -> deps.addAll(p.deps()));
+    return deps;
+}
+
+/**
+ * Everything a proof's result depends on: its source, the content file named
+ * in its /// Source: header, the JDK, the compiler flags and the dependency set.
+ */
+String cacheKey(Proof proof, String depsKey) throws IOException {
+    var content = proof.source() != null && Files.isRegularFile(proof.source())
+            ? sha256(Files.readAllBytes(proof.source())) : "none";
+    var key = String.join("\n",
+            sha256(Files.readAllBytes(proof.path())),
+            content,
+            Runtime.version().toString(),
+            String.join(" ", options(proof)),
+            depsKey);
+    return sha256(key.getBytes(StandardCharsets.UTF_8));
+}
+
+/** A pass recorded by a full run also counts for --compile-only, but not the other way round */
+boolean isCachedPass(CacheEntry entry, String key, boolean compileOnly) {
+    return entry != null && entry.key().equals(key) && (compileOnly || entry.mode().equals("run"));
+}
+
+static String sha256(byte[] bytes) {
+    try {
+        return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+    } catch (NoSuchAlgorithmException e) {
+        throw new IllegalStateException(e);
+    }
+}
+
+/** Cache lines are "<key> <run|compile> <proof> <content source>" for every proof that last passed */
+SortedMap<String, CacheEntry> readCache() {
+    var cache = new TreeMap<String, CacheEntry>();
+    if (!Files.isRegularFile(CACHE_FILE)) return cache;
+    try {
+        for (var line : Files.readAllLines(CACHE_FILE)) {
+            var fields = line.split(" ");
+            if (fields.length == 4) cache.put(fields[2], new CacheEntry(fields[0], fields[1], fields[3]));
+        }
+    } catch (IOException e) {
+        System.err.println("Ignoring unreadable cache " + CACHE_FILE + ": " + e.getMessage());
+    }
+    return cache;
+}
+
+/** Record new passes, forget failures and proofs that no longer exist, keep everything else */
+void writeCache(SortedMap<String, CacheEntry> cache, List<Proof> allProofs, Map<Proof, String> keys,
+                List<CompileResult> compiled, List<RunResult> runs, boolean compileOnly) {
+    var existing = allProofs.stream().map(Proof::name).collect(Collectors.toSet());
+    cache.keySet().retainAll(existing);
+
+    var runsByProof = new HashMap<Proof, RunResult>();
+    runs.forEach(r -> runsByProof.put(r.proof(), r));
+    for (var c : compiled) {
+        var proof = c.proof();
+        var run = runsByProof.get(proof);
+        if (c.passed() && (compileOnly || run != null && run.status() == RunStatus.PASSED)) {
+            var source = proof.source() == null ? "-" : proof.source().toString().replace('\\', '/');
+            cache.put(proof.name(), new CacheEntry(keys.get(proof), compileOnly ? "compile" : "run", source));
+        } else {
+            cache.remove(proof.name());
+        }
+    }
+
+    var lines = new ArrayList<String>();
+    cache.forEach((name, e) -> lines.add(e.key() + " " + e.mode() + " " + name + " " + e.source()));
+    try {
+        Files.createDirectories(CACHE_FILE.getParent());
+        Files.write(CACHE_FILE, lines);
+    } catch (IOException e) {
+        System.err.println("Could not write cache " + CACHE_FILE + ": " + e.getMessage());
+    }
+}
+
+/**
+ * Resolve the union of all //DEPS in one JBang call by writing a throwaway
+ * script that declares them all and asking JBang for its classpath.
+ */
+List<Path> resolveClasspath(List<Proof> proofs) throws IOException, InterruptedException {
+    var deps = dependencies(proofs);
+    if (deps.isEmpty()) return List.of();
+
+    var dir = Files.createTempDirectory("proof-deps");
+    try {
+        var script = dir.resolve("ProofDeps.java");
+        var source = new StringBuilder();
+        deps.forEach(d -> source.append("//DEPS ").append(d).append('\n'));
+        source.append("\nvoid main() {}\n");
+        Files.writeString(script, source);
+
+        var jbang = System.getProperty("os.name").startsWith("Windows") ? "jbang.cmd" : "jbang";
+        var process = new ProcessBuilder(jbang, "info", "classpath", script.toString())
+                .redirectError(ProcessBuilder.Redirect.INHERIT)
+                .start();
+        var output = new String(process.getInputStream().readAllBytes()).trim();
+        if (process.waitFor() != 0) {
+            throw new IOException("jbang could not resolve proof dependencies: " + deps);
+        }
+        return Arrays.stream(output.split(File.pathSeparator))
+                .filter(s -> !s.isBlank())
+                .map(Path::of)
+                .filter(Files::exists)
+                .toList();
+    } finally {
+        deleteRecursively(dir);
+    }
+}
+
+/** Best-effort recursive delete; returns the number of files and directories removed */
+int deleteRecursively(Path dir) throws IOException {
+    if (!Files.exists(dir)) return 0;
+    try (var walk = Files.walk(dir)) {
+        return (int) walk.sorted(Comparator.reverseOrder())
+                .filter(p -> p.toFile().delete())
+                .count();
+    }
+}
+
+/** Compile categories in parallel; proofs within a category share one file manager */
+List<CompileResult> compileAll(List<Proof> proofs, List<Path> classpath) {
+    var compiler = systemCompiler();
+    var byCategory = proofs.stream().collect(Collectors.groupingBy(Proof::category, TreeMap::new, Collectors.toList()));
+    return byCategory.values().parallelStream()
+            .flatMap(category -> compileCategory(compiler, category, classpath).stream())
+            .sorted(Comparator.comparing(r -> r.proof().path()))
+            .toList();
+}
+
+JavaCompiler systemCompiler() {
+    var compiler = ToolProvider.getSystemJavaCompiler();
+    if (compiler == null) {
+        throw new IllegalStateException("No system Java compiler available; run on a JDK, not a JRE");
+    }
+    return compiler;
+}
+
+List<CompileResult> compileCategory(JavaCompiler compiler, List<Proof> proofs, List<Path> classpath) {
+    var results = new ArrayList<CompileResult>();
+    try (var standard = compiler.getStandardFileManager(null, Locale.ROOT, StandardCharsets.UTF_8)) {
+        standard.setLocationFromPaths(StandardLocation.CLASS_PATH, classpath);
+        for (var proof : proofs) {
+            var fileManager = new MemoryFileManager(standard);
+            results.add(compile(compiler, fileManager, proof));
+        }
+    } catch (IOException e) {
+        throw new UncheckedIOException(e);
+    }
+    return results;
+}
+
+CompileResult compile(JavaCompiler compiler, MemoryFileManager fileManager, Proof proof) {
+    var start = System.nanoTime();
+    var diagnostics = new DiagnosticCollector<JavaFileObject>();
+    var units = fileManager.standard().getJavaFileObjectsFromPaths(List.of(proof.path()));
+    boolean passed;
+    try {
+        passed = compiler.getTask(null, fileManager, diagnostics, options(proof), null, units).call();
+    } catch (RuntimeException e) {
+        passed = false;
+        diagnostics.report(new ThrownDiagnostic(e));
+    }
+    var messages = diagnostics.getDiagnostics().stream()
+            .filter(d -> d.getKind() == Diagnostic.Kind.ERROR || d.getKind() == Diagnostic.Kind.WARNING)
+            .map(d -> d.getKind() + (d.getLineNumber() > 0 ? " line " + d.getLineNumber() : "") + ": "
+                    + d.getMessage(Locale.ROOT))
+            .toList();
+    return new CompileResult(proof, passed, System.nanoTime() - start, messages, fileManager.classes());
+}
+
+/** Base options, with any flag a proof sets in //JAVAC_OPTIONS taking precedence */
+List<String> options(Proof proof) {
+    var options = new ArrayList<>(BASE_OPTIONS);
+    var extra = proof.javacOptions();
+    for (int i = 0; i < extra.size(); i++) {
+        var option = extra.get(i);
+        if (option.equals("--release") && i + 1 < extra.size()) {
+            var idx = options.indexOf("--release");
+            options.set(idx + 1, extra.get(++i));
+        } else if (!options.contains(option)) {
+            options.add(option);
+        }
+    }
+    return options;
+}
+
+/**
+ * Run compiled proofs, at most {@code parallelism} at a time. Dependencies are
+ * loaded once by a shared parent loader; each proof gets its own child loader.
+ */
+List<RunResult> runAll(List<CompileResult> compiled, List<Path> classpath, Duration timeout, int parallelism)
+        throws IOException {
+    var originalOut = System.out;
+    var originalErr = System.err;
+    System.setOut(new PrintStream(new RoutingOutputStream(originalOut, Capture::out), true, StandardCharsets.UTF_8));
+    System.setErr(new PrintStream(new RoutingOutputStream(originalErr, Capture::err), true, StandardCharsets.UTF_8));
+
+    var urls = new URL[classpath.size()];
+    for (int i = 0; i < urls.length; i++) urls[i] = classpath.get(i).toUri().toURL();
+    var permits = new Semaphore(parallelism);
+    try (var depsLoader = new URLClassLoader("proof-deps", urls, ClassLoader.getPlatformClassLoader());
+         var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+        var futures = compiled.stream()
+                .map(c -> executor.submit(() -> {
+                    permits.acquire();
+                    try {
+                        return run(c, depsLoader, timeout);
+                    } finally {
+                        permits.release();
+                    }
+                }))
+                .toList();
+        var results = new ArrayList<RunResult>();
+        for (var future : futures) {
+            try {
+                results.add(future.get());
+            } catch (InterruptedException | ExecutionException e) {
+                throw new IllegalStateException("Proof runner interrupted", e);
+            }
+        }
+        return results;
+    } finally {
+        System.setOut(originalOut);
+        System.setErr(originalErr);
+    }
+}
+
+RunResult run(CompileResult compiled, ClassLoader parent, Duration timeout) throws InterruptedException {
+    var proof = compiled.proof();
+    var capture = new Capture(new ByteArrayOutputStream(), new ByteArrayOutputStream());
+    var failure = new AtomicReference<Throwable>();
+    var loader = new ProofClassLoader(proof.name(), compiled.classes(), parent);
+
+    var start = System.nanoTime();
+    var thread = Thread.ofVirtual().name("proof " + proof.name()).unstarted(() -> {
+        CAPTURE.set(capture);
+        try {
+            invokeMain(Class.forName(mainClassName(compiled), true, loader));
+        } catch (InvocationTargetException e) {
+            failure.set(e.getCause());
+        } catch (Throwable t) {
+            failure.set(t);
+        }
+    });
+    thread.setContextClassLoader(loader);
+    thread.start();
+    var finished = thread.join(timeout);
+    var nanos = System.nanoTime() - start;
+    if (!finished) thread.interrupt();
+
+    var status = !finished ? RunStatus.TIMED_OUT
+            : failure.get() != null ? RunStatus.FAILED
+            : RunStatus.PASSED;
+    return new RunResult(proof, status, nanos, capture.out().toString(StandardCharsets.UTF_8),
+            capture.err().toString(StandardCharsets.UTF_8), failure.get());
+}
+
+/**
+ * The class the source launcher would run: the implicit class named after the
+ * file if there is one, otherwise the first top-level class in the file.
+ */
+String mainClassName(CompileResult compiled) {
+    var fileName = compiled.proof().path().getFileName().toString();
+    var implicit = fileName.substring(0, fileName.length() - ".java".length());
+    if (compiled.classes().containsKey(implicit)) return implicit;
+    return compiled.classes().keySet().stream()
+            .filter(name -> !name.contains("$"))
+            .findFirst()
+            .orElse(implicit);
+}
+
+/**
+ * Invoke main following the launch protocol for Java 25: main(String[]) is
+ * preferred over main(), and an instance main is called on a new instance.
+ */
+void invokeMain(Class<?> mainClass) throws ReflectiveOperationException {
+    var main = findMethod(mainClass, "main", String[].class);
+    var withArgs = main != null;
+    if (!withArgs) main = findMethod(mainClass, "main");
+    if (main == null) throw new NoSuchMethodException(mainClass.getName() + ".main");
+
+    main.setAccessible(true);
+    Object instance = null;
+    if (!Modifier.isStatic(main.getModifiers())) {
+        var constructor = mainClass.getDeclaredConstructor();
+        constructor.setAccessible(true);
+        instance = constructor.newInstance();
+    }
+    if (withArgs) main.invoke(instance, (Object) new String[0]);
+    else main.invoke(instance);
+}
+
+Method findMethod(Class<?> type, String name, Class<?>... parameterTypes) {
+    for (var c = type; c != null; c = c.getSuperclass()) {
+        try {
+            var method = c.getDeclaredMethod(name, parameterTypes);
+            if (!Modifier.isPrivate(method.getModifiers())) return method;
+        } catch (NoSuchMethodException _) {
+        }
+    }
+    return null;
+}
+
+void report(List<Proof> proofs, Set<Proof> cached, List<CompileResult> compiled, List<RunResult> runs,
+            boolean verbose, long totalNanos) {
+    var compiledByProof = new HashMap<Proof, CompileResult>();
+    compiled.forEach(c -> compiledByProof.put(c.proof(), c));
+    var runsByProof = new HashMap<Proof, RunResult>();
+    runs.forEach(r -> runsByProof.put(r.proof(), r));
+
+    var failures = new ArrayList<String>();
+    for (var proof : proofs) {
+        if (cached.contains(proof)) {
+            System.out.printf("✅ %-60s cached%n", proof.name());
+            continue;
+        }
+        var c = compiledByProof.get(proof);
+        var run = runsByProof.get(c.proof());
+        var passed = c.passed() && (run == null || run.status() == RunStatus.PASSED);
+        System.out.printf("%s %-60s compile %7.1f ms%s%n", passed ? "✅" : "❌", c.proof().name(), c.nanos() / 1e6,
+                run == null ? "" : "   run %7.1f ms".formatted(run.nanos() / 1e6)
+                        + (run.status() == RunStatus.PASSED ? "" : "   " + run.status()));
+        if (!c.passed() || verbose) {
+            c.diagnostics().forEach(d -> System.out.println("     " + d.replace("\n", "\n     ")));
+        }
+        if (run != null && (run.status() != RunStatus.PASSED || verbose)) {
+            if (run.failure() != null) {
+                var trace = new StringWriter();
+                run.failure().printStackTrace(new PrintWriter(trace));
+                System.out.println("     " + trace.toString().strip().replace("\n", "\n     "));
+            }
+            if (!run.stdout().isBlank()) System.out.println("     stdout: " + run.stdout().strip().replace("\n", "\n             "));
+            if (!run.stderr().isBlank()) System.out.println("     stderr: " + run.stderr().strip().replace("\n", "\n             "));
+        }
+        if (!passed) failures.add(c.proof().name());
+    }
+
+    System.out.println();
+    System.out.printf("Results: %d passed (%d cached), %d failed out of %d proofs in %d ms (compile time %d ms, run time %d ms)%n",
+            proofs.size() - failures.size(), cached.size(), failures.size(), proofs.size(), totalNanos / 1_000_000,
+            compiled.stream().mapToLong(CompileResult::nanos).sum() / 1_000_000,
+            runs.stream().mapToLong(RunResult::nanos).sum() / 1_000_000);
+    if (!failures.isEmpty()) {
+        System.out.println();
+        System.out.println("Failed proofs:");
+        failures.forEach(name -> System.out.println("  - " + name));
+    }
+}
+
+// ---------- Release matrix ----------
+
+static final Pattern JDK_VERSION = Pattern.compile("(?m)^\\s*\"?jdkVersion\"?\\s*:\\s*\"?(\\d+)");
+static final Pattern IMPLICIT_MAIN = Pattern.compile("(?m)^(?:static\\s+)?void\\s+main\\s*\\(");
+
+/**
+ * Find the lowest --release each proof compiles on. Releases are tried from
+ * the declared jdkVersion outwards (down while it still compiles, up until it
+ * does). The running release is compiled first, because a proof that fails
+ * there has no lowest release, so a right claim costs three compilations: the
+ * running release, the declared one and the one below it. Categories
+ * run in parallel on one compiler instance, one file manager per category.
+ */
+boolean releaseMatrix(List<Proof> proofs, List<Proof> allProofs, boolean useCache, boolean verbose)
+        throws IOException, InterruptedException {
+    var start = System.nanoTime();
+    var compiler = systemCompiler();
+    var minRelease = compiler.getSourceVersions().stream()
+            .mapToInt(Enum::ordinal)
+            .filter(r -> r >= 8)
+            .min().orElse(RELEASE);
+
+    var cache = useCache ? readMatrixCache() : new TreeMap<String, String[]>();
+    var depsKey = sha256(String.join("\n", dependencies(allProofs)).getBytes(StandardCharsets.UTF_8));
+    var keys = new HashMap<Proof, String>();
+    var results = new ArrayList<MatrixResult>();
+    var pending = new ArrayList<Proof>();
+    for (var proof : proofs) {
+        var key = sha256((sha256(Files.readAllBytes(proof.path())) + "\n" + Runtime.version() + "\n"
+                + String.join(" ", options(proof)) + "\n" + depsKey).getBytes(StandardCharsets.UTF_8));
+        keys.put(proof, key);
+        var entry = cache.get(proof.name());
+        if (entry != null && entry[0].equals(key)) {
+            results.add(new MatrixResult(proof, declaredRelease(proof), Integer.valueOf(entry[1]),
+                    new TreeMap<>(), 0, true));
+        } else {
+            pending.add(proof);
+        }
+    }
+
+    List<Path> classpath = pending.isEmpty() ? List.of() : resolveClasspath(allProofs);
+    var packages = new ConcurrentHashMap<Integer, List<String>>();
+    var byCategory = pending.stream().collect(Collectors.groupingBy(Proof::category, TreeMap::new, Collectors.toList()));
+    results.addAll(byCategory.values().parallelStream()
+            .flatMap(category -> matrixCategory(compiler, category, classpath, minRelease, packages).stream())
+            .toList());
+    results.sort(Comparator.comparing(r -> r.proof().path()));
+
+    reportMatrix(results, minRelease, verbose, System.nanoTime() - start);
+    if (useCache) writeMatrixCache(cache, allProofs, keys, results);
+    return results.stream().anyMatch(r -> r.lowest() == null);
+}
+
+List<MatrixResult> matrixCategory(JavaCompiler compiler, List<Proof> proofs, List<Path> classpath, int minRelease,
+                                  Map<Integer, List<String>> packages) {
+    var results = new ArrayList<MatrixResult>();
+    try (var fileManager = compiler.getStandardFileManager(null, Locale.ROOT, StandardCharsets.UTF_8)) {
+        fileManager.setLocationFromPaths(StandardLocation.CLASS_PATH, classpath);
+        for (var proof : proofs) {
+            var start = System.nanoTime();
+            var source = Files.readString(proof.path());
+            var declared = declaredRelease(proof);
+            var attempts = new TreeMap<Integer, Boolean>();
+            IntPredicate compiles = release -> attempts.computeIfAbsent(release,
+                    r -> compilesOn(compiler, fileManager, proof, source, r, packages));
+            var lowest = lowestRelease(compiles, declared, minRelease);
+            results.add(new MatrixResult(proof, declared, lowest, attempts, System.nanoTime() - start, false));
+        }
+    } catch (IOException e) {
+        throw new UncheckedIOException(e);
+    }
+    return results;
+}
+
+Integer lowestRelease(IntPredicate compiles, Integer declared, int minRelease) {
+    if (!compiles.test(RELEASE)) return null;
+    int release = declared == null ? RELEASE : Math.clamp(declared, minRelease, RELEASE);
+    if (compiles.test(release)) {
+        while (release > minRelease && compiles.test(release - 1)) release--;
+    } else {
+        do release++; while (!compiles.test(release));
+    }
+    return release;
+}
+
+/** The jdkVersion declared by the content file named in the proof's /// Source: header */
+Integer declaredRelease(Proof proof) {
+    if (proof.source() == null || !Files.isRegularFile(proof.source())) return null;
+    try {
+        var m = JDK_VERSION.matcher(Files.readString(proof.source()));
+        return m.find() ? Integer.valueOf(m.group(1)) : null;
+    } catch (IOException e) {
+        return null;
+    }
+}
+
+/**
+ * Type-check a proof against one release. Below the current release an
+ * implicit class is rewritten as an explicit one with on-demand imports of the
+ * java.base packages that release has, which is what the implicit
+ * {@code import module java.base} provides on a current JDK.
+ */
+boolean compilesOn(JavaCompiler compiler, StandardJavaFileManager fileManager, Proof proof, String source,
+                   int release, Map<Integer, List<String>> packages) {
+    var options = new ArrayList<>(options(proof));
+    options.set(options.indexOf("--release") + 1, String.valueOf(release));
+    Iterable<? extends JavaFileObject> units;
+    if (release == RELEASE || !IMPLICIT_MAIN.matcher(source).find()) {
+        units = fileManager.getJavaFileObjectsFromPaths(List.of(proof.path()));
+    } else {
+        var fileName = proof.path().getFileName().toString();
+        var className = fileName.substring(0, fileName.length() - ".java".length());
+        var wrapped = wrapImplicitClass(className, source,
+                packages.computeIfAbsent(release, r -> javaBasePackages(compiler, r)));
+        units = List.of(new SimpleJavaFileObject(proof.path().toUri(), JavaFileObject.Kind.SOURCE) {
+            @Override
+            public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+                return wrapped;
+            }
+        });
+    }
+    if (release != RELEASE) {
+        // Preview features only exist for the current release; -Xlint:-options silences "release 8 is obsolete"
+        options.remove("--enable-preview");
+        options.add("-Xlint:-options");
+    }
+    var diagnostics = new DiagnosticCollector<JavaFileObject>();
+    try {
+        var task = (JavacTask) compiler.getTask(null, fileManager, diagnostics, options, null, units);
+        task.analyze();
+    } catch (RuntimeException | IOException e) {
+        return false;
+    }
+    return diagnostics.getDiagnostics().stream().noneMatch(d -> d.getKind() == Diagnostic.Kind.ERROR);
+}
+
+/**
+ * Wrap everything after the leading comments and imports in a class. The
+ * extra imports and the class header go on the first body line so that
+ * diagnostics keep the original line numbers.
+ */
+String wrapImplicitClass(String className, String source, List<String> packages) {
+    var lines = source.split("\n", -1);
+    int body = 0;
+    while (body < lines.length) {
+        var line = lines[body].strip();
+        if (!line.isEmpty() && !line.startsWith("//") && !line.startsWith("import ")) break;
+        body++;
+    }
+    if (body == lines.length) return source;
+    var imports = packages.stream().map(p -> "import " + p + ".*;").collect(Collectors.joining(" "));
+    lines[body] = imports + " final class " + className + " { " + lines[body];
+    return String.join("\n", lines) + "\n}\n";
+}
+
+/** Unqualified exports of java.base on a release, or the packages that exist on release 8 */
+List<String> javaBasePackages(JavaCompiler compiler, int release) {
+    var task = (JavacTask) compiler.getTask(null, null, null,
+            List.of("--release", String.valueOf(release), "-Xlint:-options"), null, List.of());
+    var elements = task.getElements();
+    var base = elements.getModuleElement("java.base");
+    if (base != null) {
+        return base.getDirectives().stream()
+                .filter(d -> d instanceof ModuleElement.ExportsDirective e && e.getTargetModules() == null)
+                .map(d -> ((ModuleElement.ExportsDirective) d).getPackage().getQualifiedName().toString())
+                .sorted()
+                .toList();
+    }
+    return Object.class.getModule().getDescriptor().exports().stream()
+            .filter(e -> !e.isQualified())
+            .map(ModuleDescriptor.Exports::source)
+            .filter(p -> elements.getPackageElement(p) != null)
+            .sorted()
+            .toList();
+}
+
+void reportMatrix(List<MatrixResult> results, int minRelease, boolean verbose, long totalNanos) {
+    System.out.printf("Release matrix: --release %d to %d%n", minRelease, RELEASE);
+    int matching = 0, earlier = 0, later = 0, failing = 0, unknown = 0;
+    for (var r : results) {
+        String mark, verdict;
+        if (r.lowest() == null) {
+            mark = "❌"; verdict = "does not compile on " + RELEASE; failing++;
+        } else if (r.declared() == null) {
+            mark = "❔"; verdict = "compiles from " + r.lowest() + ", no jdkVersion declared"; unknown++;
+        } else if (r.lowest().equals(r.declared())) {
+            mark = "✅"; verdict = "compiles from " + r.lowest(); matching++;
+        } else if (r.lowest() < r.declared()) {
+            mark = "⚠️"; verdict = "compiles from " + r.lowest() + ", earlier than declared"; earlier++;
+        } else {
+            mark = "⚠️"; verdict = "needs " + r.lowest() + ", later than declared"; later++;
+        }
+        var timing = r.cached() ? "cached" : "%.0f ms".formatted(r.nanos() / 1e6);
+        System.out.printf("%s %-60s declared %-4s %s (%s)%n", mark, r.proof().name(),
+                r.declared() == null ? "?" : r.declared(), verdict, timing);
+        if (verbose && !r.attempts().isEmpty()) {
+            System.out.println("     " + r.attempts().entrySet().stream()
+                    .map(e -> e.getKey() + (e.getValue() ? " ✓" : " ✗"))
+                    .collect(Collectors.joining("  ")));
+        }
+    }
+    System.out.println();
+    System.out.printf("Results: %d match jdkVersion, %d compile earlier, %d need a later release, %d without "
+                    + "jdkVersion, %d fail on %d (%d compilations in %d ms)%n",
+            matching, earlier, later, unknown, failing, RELEASE,
+            results.stream().mapToInt(r -> r.attempts().size()).sum(), totalNanos / 1_000_000);
+}
+
+/** Matrix cache lines are "<key> <lowest release> <proof>" */
+SortedMap<String, String[]> readMatrixCache() {
+    var cache = new TreeMap<String, String[]>();
+    if (!Files.isRegularFile(MATRIX_CACHE_FILE)) return cache;
+    try {
+        for (var line : Files.readAllLines(MATRIX_CACHE_FILE)) {
+            var fields = line.split(" ");
+            if (fields.length == 3) cache.put(fields[2], new String[] {fields[0], fields[1]});
+        }
+    } catch (IOException e) {
+        System.err.println("Ignoring unreadable cache " + MATRIX_CACHE_FILE + ": " + e.getMessage());
+    }
+    return cache;
+}
+
+void writeMatrixCache(SortedMap<String, String[]> cache, List<Proof> allProofs, Map<Proof, String> keys,
+                      List<MatrixResult> results) {
+    cache.keySet().retainAll(allProofs.stream().map(Proof::name).collect(Collectors.toSet()));
+    for (var r : results) {
+        if (r.lowest() != null) cache.put(r.proof().name(), new String[] {keys.get(r.proof()), r.lowest().toString()});
+        else cache.remove(r.proof().name());
+    }
+    var lines = new ArrayList<String>();
+    cache.forEach((name, e) -> lines.add(e[0] + " " + e[1] + " " + name));
+    try {
+        Files.createDirectories(MATRIX_CACHE_FILE.getParent());
+        Files.write(MATRIX_CACHE_FILE, lines);
+    } catch (IOException e) {
+        System.err.println("Could not write cache " + MATRIX_CACHE_FILE + ": " + e.getMessage());
+    }
+}
+
+/** Keeps class output in memory instead of writing .class files next to the sources */
+static final class MemoryFileManager extends ForwardingJavaFileManager<StandardJavaFileManager> {
+    // Insertion order follows javac's output order, so the first top-level class comes first
+    private final Map<String, ByteArrayOutputStream> output = new LinkedHashMap<>();
+
+    MemoryFileManager(StandardJavaFileManager standard) {
+        super(standard);
+    }
+
+    StandardJavaFileManager standard() {
+        return fileManager;
+    }
+
+    Map<String, byte[]> classes() {
+        var classes = new LinkedHashMap<String, byte[]>();
+        output.forEach((name, bytes) -> classes.put(name, bytes.toByteArray()));
+        return classes;
+    }
+
+    @Override
+    public JavaFileObject getJavaFileForOutput(Location location, String className,
+                                               JavaFileObject.Kind kind, FileObject sibling) {
+        var uri = URI.create("mem:///" + className.replace('.', '/') + kind.extension);
+        return new SimpleJavaFileObject(uri, kind) {
+            @Override
+            public OutputStream openOutputStream() {
+                return output.computeIfAbsent(className, _ -> new ByteArrayOutputStream());
+            }
+        };
+    }
+}
+
+/** Defines a single proof's classes; everything else comes from the shared dependency loader */
+static final class ProofClassLoader extends ClassLoader {
+    private final Map<String, byte[]> classes;
+
+    ProofClassLoader(String name, Map<String, byte[]> classes, ClassLoader parent) {
+        super(name, parent);
+        this.classes = classes;
+    }
+
+    @Override
+    protected Class<?> findClass(String name) throws ClassNotFoundException {
+        var bytes = classes.get(name);
+        if (bytes == null) throw new ClassNotFoundException(name);
+        return defineClass(name, bytes, 0, bytes.length);
+    }
+
+    /** Serve class files as resources too, for frameworks that read class metadata directly */
+    @Override
+    protected URL findResource(String name) {
+        if (!name.endsWith(".class")) return null;
+        var bytes = classes.get(name.substring(0, name.length() - ".class".length()).replace('/', '.'));
+        if (bytes == null) return null;
+        try {
+            return URL.of(URI.create("proof:/" + name), new URLStreamHandler() {
+                @Override
+                protected URLConnection openConnection(URL url) {
+                    return new URLConnection(url) {
+                        @Override
+                        public void connect() {
+                        }
+
+                        @Override
+                        public InputStream getInputStream() {
+                            return new ByteArrayInputStream(bytes);
+                        }
+                    };
+                }
+            });
+        } catch (MalformedURLException e) {
+            return null;
+        }
+    }
+}
+
+/** Sends writes to the current proof's capture buffer, or to the original stream outside proofs */
+static final class RoutingOutputStream extends OutputStream {
+    private final OutputStream original;
+    private final Function<Capture, ByteArrayOutputStream> select;
+
+    RoutingOutputStream(OutputStream original, Function<Capture, ByteArrayOutputStream> select) {
+        this.original = original;
+        this.select = select;
+    }
+
+    private OutputStream target() {
+        var capture = CAPTURE.get();
+        return capture == null ? original : select.apply(capture);
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        target().write(b);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        target().write(b, off, len);
+    }
+
+    @Override
+    public void flush() throws IOException {
+        target().flush();
+    }
+}
+
+/** Surfaces a compiler crash as an ordinary error diagnostic for the report */
+record ThrownDiagnostic(RuntimeException e) implements Diagnostic<JavaFileObject> {
+    public Kind getKind() { return Kind.ERROR; }
+    public JavaFileObject getSource() { return null; }
+    public long getPosition() { return NOPOS; }
+    public long getStartPosition() { return NOPOS; }
+    public long getEndPosition() { return NOPOS; }
+    public long getLineNumber() { return NOPOS; }
+    public long getColumnNumber() { return NOPOS; }
+    public String getCode() { return null; }
+    public String getMessage(Locale locale) { return "compiler crashed: " + e; }
+}
@@ -0,0 +1,383 @@
+package perf;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SequencedMap;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/// Shared launcher for the old-vs-modern benchmarks under perf/.
+///
+/// Each benchmark class lives in perf/{category}/{PascalSlug}.java, mirroring
+/// proof/, and calls {@link #run} from its main method. Results are written as
+/// JMH JSON to perf/results/{category}/{slug}.json (or under the directory in
+/// the {@code perf.results} system property), with the GC profiler enabled so
+/// every result carries allocation rates next to throughput. The machine the
+/// numbers come from is described next to them in {slug}.host.json.
+///
+/// With {@code --alloc}, the benchmark is not run through JMH. Instead each
+/// variant runs in this JVM under a JFR recording of allocation samples and GC
+/// pauses, and the summary is written to {slug}.alloc.json.
+public final class Lab {
+
+    /// Top allocating types kept per variant in the allocation report
+    static final int TOP_TYPES = 5;
+
+    private Lab() {
+    }
+
+    public static void run(Class<?> benchmark, String... args) throws Exception {
+        var category = benchmark.getPackageName().substring(benchmark.getPackageName().lastIndexOf('.') + 1);
+        var slug = benchmark.getSimpleName().replaceAll("(?<=[a-z0-9])(?=[A-Z])", "-").toLowerCase();
+        var result = Path.of(System.getProperty("perf.results", "perf/results"), category, slug + ".json");
+        Files.createDirectories(result.getParent());
+        if (Arrays.asList(args).contains("--alloc")) {
+            var alloc = result.resolveSibling(slug + ".alloc.json");
+            profileAllocations(benchmark, parseParams(args), alloc);
+            writeHost(result.resolveSibling(slug + ".host.json"));
+            System.out.println("Allocation profile written to " + alloc);
+            return;
+        }
+
+        // Command-line JMH options (e.g. -p size=100 -f 3 -wi 5) override the class annotations
+        var options = new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .include(Pattern.quote(benchmark.getName()) + "\\.")
+                .addProfiler(GCProfiler.class)
+                .resultFormat(ResultFormatType.JSON)
+                .result(result.toString())
+                .build();
+        new Runner(options).run();
+        writeHost(result.resolveSibling(slug + ".host.json"));
+        System.out.println("Results written to " + result);
+    }
+
+    /// One variant's allocation and GC summary from a JFR recording
+    record AllocProfile(long ops, double seconds, long bytes, Map<String, Long> bytesByType,
+                        int gcCount, double gcPauseMillis, double gcMaxPauseMillis) {
+    }
+
+    /// Run oldCode and modernCode for every @Param combination under JFR and write the summaries as JSON.
+    ///
+    /// Each variant gets a fresh instance, its @Setup methods, a warm-up and a
+    /// measured phase as long as the class's @Warmup and @Measurement say, and
+    /// its own recording, so the samples and GC pauses belong to that variant
+    /// alone. Allocated bytes are the summed weights of jdk.ObjectAllocationSample,
+    /// an estimate from sampling, not an exact count.
+    static void profileAllocations(Class<?> benchmark, Map<String, List<String>> overrides, Path out) throws Exception {
+        var w = benchmark.getAnnotation(Warmup.class);
+        var m = benchmark.getAnnotation(Measurement.class);
+        var warmup = w != null ? phase(w.iterations(), w.time(), w.timeUnit()) : phase(-1, -1, TimeUnit.SECONDS);
+        var measure = m != null ? phase(m.iterations(), m.time(), m.timeUnit()) : phase(-1, -1, TimeUnit.SECONDS);
+
+        var params = new LinkedHashMap<Field, List<String>>();
+        for (var field : benchmark.getDeclaredFields()) {
+            if (field.getAnnotation(Param.class) instanceof Param p) {
+                params.put(field, overrides.getOrDefault(field.getName(), List.of(p.value())));
+            }
+        }
+
+        var rows = new StringBuilder();
+        for (var combination : combinations(params)) {
+            var old = profile(benchmark, "oldCode", combination, warmup, measure);
+            var modern = profile(benchmark, "modernCode", combination, warmup, measure);
+            var names = combination.entrySet().stream()
+                    .map(e -> "\"%s\": \"%s\"".formatted(json(e.getKey().getName()), json(e.getValue())))
+                    .collect(Collectors.joining(", "));
+            if (!rows.isEmpty()) rows.append(",\n");
+            rows.append("""
+                        {
+                          "params": {%s},
+                          "old": %s,
+                          "modern": %s
+                        }""".formatted(names, toJson(old), toJson(modern)));
+            System.out.printf("%s %s: old %,.0f B/op, modern %,.0f B/op%n", benchmark.getSimpleName(),
+                    combination.values(), (double) old.bytes() / old.ops(), (double) modern.bytes() / modern.ops());
+        }
+
+        var gcs = ManagementFactory.getGarbageCollectorMXBeans().stream()
+                .map(gc -> gc.getName())
+                .collect(Collectors.joining(", "));
+        Files.writeString(out, """
+                {
+                  "jdkVersion": "%s",
+                  "vmVersion": "%s",
+                  "gc": "%s",
+                  "warmupSeconds": %s,
+                  "measurementSeconds": %s,
+                  "results": [
+                %s
+                  ]
+                }
+                """.formatted(json(System.getProperty("java.version")), json(System.getProperty("java.vm.version")),
+                json(gcs), warmup.toMillis() / 1000.0, measure.toMillis() / 1000.0, rows.toString().indent(4).stripTrailing()));
+    }
+
+    static AllocProfile profile(Class<?> benchmark, String variant, SequencedMap<Field, String> params,
+                                Duration warmup, Duration measure) throws Exception {
+        var instance = benchmark.getDeclaredConstructor().newInstance();
+        for (var param : params.entrySet()) {
+            var field = param.getKey();
+            field.setAccessible(true);
+            field.set(instance, convert(param.getValue(), field.getType()));
+        }
+        invokeAnnotated(instance, Setup.class);
+        var call = invoker(benchmark.getMethod(variant));
+
+        loop(call, instance, warmup);
+        System.gc();
+        var file = Files.createTempFile("perf-" + variant, ".jfr");
+        long ops;
+        try (var recording = new Recording()) {
+            // Sample far more often than the default 150/s so short runs still get a useful type histogram
+            recording.enable("jdk.ObjectAllocationSample").with("throttle", "5000/s");
+            recording.enable("jdk.GarbageCollection");
+            recording.start();
+            var start = System.nanoTime();
+            ops = loop(call, instance, measure);
+            var seconds = (System.nanoTime() - start) / 1e9;
+            recording.stop();
+            recording.dump(file);
+            invokeAnnotated(instance, TearDown.class);
+            return summarize(RecordingFile.readAllEvents(file), ops, seconds);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    static AllocProfile summarize(List<RecordedEvent> events, long ops, double seconds) {
+        var bytesByType = new HashMap<String, Long>();
+        long bytes = 0;
+        int gcCount = 0;
+        double pauseMillis = 0, maxPauseMillis = 0;
+        for (var event : events) {
+            switch (event.getEventType().getName()) {
+                case "jdk.ObjectAllocationSample" -> {
+                    var weight = event.getLong("weight");
+                    bytes += weight;
+                    bytesByType.merge(typeName(event.getClass("objectClass").getName()), weight, Long::sum);
+                }
+                case "jdk.GarbageCollection" -> {
+                    gcCount++;
+                    pauseMillis += event.getDuration("sumOfPauses").toNanos() / 1e6;
+                    maxPauseMillis = Math.max(maxPauseMillis, event.getDuration("longestPause").toNanos() / 1e6);
+                }
+                default -> { }
+            }
+        }
+        var top = new LinkedHashMap<String, Long>();
+        bytesByType.entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()))
+                .limit(TOP_TYPES)
+                .forEach(e -> top.put(e.getKey(), e.getValue()));
+        return new AllocProfile(ops, seconds, bytes, top, gcCount, pauseMillis, maxPauseMillis);
+    }
+
+    /// Call the benchmark method until the time is up. Results go to a volatile field so they can't be optimized away
+    static long loop(MethodHandle call, Object instance, Duration duration) throws Exception {
+        var end = System.nanoTime() + duration.toNanos();
+        long ops = 0;
+        try {
+            do {
+                sink = call.invokeExact(instance);
+                ops++;
+            } while (System.nanoTime() < end);
+        } catch (Exception | Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new IllegalStateException(t);
+        }
+        return ops;
+    }
+
+    static volatile Object sink;
+
+    /// A handle of type (Object)Object. Primitive results are consumed as they are, not boxed, so the
+    /// harness adds no allocations of its own
+    static MethodHandle invoker(Method method) throws IllegalAccessException, NoSuchMethodException {
+        var handle = MethodHandles.publicLookup().unreflect(method);
+        var type = method.getReturnType();
+        if (!type.isPrimitive()) return handle.asType(MethodType.methodType(Object.class, Object.class));
+        var consume = MethodHandles.lookup().findStatic(Lab.class, "consume", MethodType.methodType(Object.class, long.class));
+        if (type == void.class) {
+            return MethodHandles.filterReturnValue(handle.asType(MethodType.methodType(void.class, Object.class)),
+                    MethodHandles.constant(Object.class, null));
+        }
+        var widened = MethodHandles.explicitCastArguments(handle, MethodType.methodType(long.class, Object.class));
+        return MethodHandles.filterReturnValue(widened, consume);
+    }
+
+    static volatile long primitiveSink;
+
+    static Object consume(long value) {
+        primitiveSink = value;
+        return null;
+    }
+
+    static void invokeAnnotated(Object instance, Class<? extends java.lang.annotation.Annotation> annotation)
+            throws IllegalAccessException {
+        for (var method : instance.getClass().getMethods()) {
+            if (method.isAnnotationPresent(annotation)) {
+                try {
+                    method.invoke(instance);
+                } catch (InvocationTargetException e) {
+                    throw new IllegalStateException(method.getName() + " failed", e.getCause());
+                }
+            }
+        }
+    }
+
+    static List<SequencedMap<Field, String>> combinations(SequencedMap<Field, List<String>> params) {
+        List<SequencedMap<Field, String>> result = new ArrayList<>();
+        result.add(new LinkedHashMap<>());
+        for (var param : params.entrySet()) {
+            var next = new ArrayList<SequencedMap<Field, String>>();
+            for (var partial : result) {
+                for (var value : param.getValue()) {
+                    var combination = new LinkedHashMap<>(partial);
+                    combination.put(param.getKey(), value);
+                    next.add(combination);
+                }
+            }
+            result = next;
+        }
+        return result;
+    }
+
+    /// JMH-style "-p name=v1,v2" options, so the same sizes can be passed to both modes
+    static Map<String, List<String>> parseParams(String[] args) {
+        var params = new HashMap<String, List<String>>();
+        for (int i = 0; i + 1 < args.length; i++) {
+            if (args[i].equals("-p") && args[i + 1].contains("=")) {
+                var option = args[++i];
+                var name = option.substring(0, option.indexOf('='));
+                params.put(name, List.of(option.substring(option.indexOf('=') + 1).split(",")));
+            }
+        }
+        return params;
+    }
+
+    static Object convert(String value, Class<?> type) {
+        if (type == int.class) return Integer.parseInt(value);
+        if (type == long.class) return Long.parseLong(value);
+        if (type == double.class) return Double.parseDouble(value);
+        if (type == boolean.class) return Boolean.parseBoolean(value);
+        return value;
+    }
+
+    /// Total length of a JMH phase, with JMH's defaults of 5 iterations of 10 s for attributes left unset (-1)
+    static Duration phase(int iterations, int time, TimeUnit unit) {
+        var count = iterations < 0 ? 5 : iterations;
+        return time < 0 ? Duration.ofSeconds(count * 10L) : Duration.of((long) count * time, unit.toChronoUnit());
+    }
+
+    /// "[Ljava.lang.Object;" → "java.lang.Object[]"
+    static String typeName(String binaryName) {
+        int dims = 0;
+        while (dims < binaryName.length() && binaryName.charAt(dims) == '[') dims++;
+        if (dims == 0) return binaryName;
+        var element = binaryName.substring(dims);
+        var base = switch (element.charAt(0)) {
+            case 'B' -> "byte";
+            case 'C' -> "char";
+            case 'D' -> "double";
+            case 'F' -> "float";
+            case 'I' -> "int";
+            case 'J' -> "long";
+            case 'S' -> "short";
+            case 'Z' -> "boolean";
+            default -> element.substring(1, element.length() - 1);
+        };
+        return base + "[]".repeat(dims);
+    }
+
+    static String toJson(AllocProfile p) {
+        var types = p.bytesByType().entrySet().stream()
+                .map(e -> "{\"type\": \"%s\", \"bytes\": %d}".formatted(json(e.getKey()), e.getValue()))
+                .collect(Collectors.joining(", "));
+        return String.format(java.util.Locale.ROOT, """
+                {
+                  "ops": %d,
+                  "seconds": %.3f,
+                  "allocBytes": %d,
+                  "allocBytesPerOp": %.1f,
+                  "allocBytesPerSecond": %.0f,
+                  "gcCount": %d,
+                  "gcPauseMillis": %.3f,
+                  "gcMaxPauseMillis": %.3f,
+                  "topTypes": [%s]
+                }""", p.ops(), p.seconds(), p.bytes(), (double) p.bytes() / p.ops(), p.bytes() / p.seconds(),
+                p.gcCount(), p.gcPauseMillis(), p.gcMaxPauseMillis(), types).indent(2).strip();
+    }
+
+    /// JMH JSON records the JVM but not the hardware, so describe it separately
+    static void writeHost(Path path) throws IOException {
+        Files.writeString(path, """
+                {
+                  "os": "%s",
+                  "arch": "%s",
+                  "cpus": %d,
+                  "cpu": "%s"
+                }
+                """.formatted(json(System.getProperty("os.name")), json(System.getProperty("os.arch")),
+                Runtime.getRuntime().availableProcessors(), json(cpuModel())));
+    }
+
+    static String cpuModel() {
+        try {
+            var cpuinfo = Path.of("/proc/cpuinfo");
+            if (Files.isReadable(cpuinfo)) {
+                try (var lines = Files.lines(cpuinfo)) {
+                    var model = lines.filter(l -> l.startsWith("model name"))
+                            .map(l -> l.substring(l.indexOf(':') + 1).strip())
+                            .findFirst();
+                    if (model.isPresent()) return model.get();
+                }
+            }
+            if (System.getProperty("os.name").startsWith("Mac")) {
+                var process = new ProcessBuilder("sysctl", "-n", "machdep.cpu.brand_string").start();
+                var model = new String(process.getInputStream().readAllBytes()).strip();
+                if (process.waitFor() == 0 && !model.isEmpty()) return model;
+            }
+        } catch (IOException | InterruptedException e) {
+            // fall through to the environment
+        }
+        var identifier = System.getenv("PROCESSOR_IDENTIFIER");
+        return identifier != null ? identifier : "unknown";
+    }
+
+    static String json(String s) {
+        return s.replace("\\", "\\\\").replace("\"", "\\\"");
+    }
+}
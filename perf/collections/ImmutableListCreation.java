@@ -0,0 +1,60 @@
+///usr/bin/env jbang "$0" "$@" ; exit $?
+//JAVA 25+
+//DEPS org.openjdk.jmh:jmh-core:1.37
+//DEPS org.openjdk.jmh:jmh-generator-annprocess:1.37
+//JAVAC_OPTIONS -proc:full
+//SOURCES ../Lab.java
+package perf.collections;
+
+import org.openjdk.jmh.annotations.*;
+import perf.Lab;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/// Benchmark: immutable-list-creation
+/// Source: content/collections/immutable-list-creation.yaml
+///
+/// The snippet builds a three-element list; larger sizes pass an array of
+/// {@code size} elements through the same calls.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ImmutableListCreation {
+
+    @Param({"3", "100", "10000"})
+    int size;
+
+    String[] elements;
+
+    @Setup
+    public void setup() {
+        elements = new String[size];
+        for (int i = 0; i < size; i++) elements[i] = String.valueOf((char) ('a' + i % 26));
+    }
+
+    @Benchmark
+    public List<String> oldCode() {
+        List<String> list =
+            Collections.unmodifiableList(
+                new ArrayList<>(
+                    Arrays.asList(elements)
+                )
+            );
+        return list;
+    }
+
+    @Benchmark
+    public List<String> modernCode() {
+        List<String> list =
+            List.of(elements);
+        return list;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Lab.run(ImmutableListCreation.class, args);
+    }
+}
@@ -0,0 +1,62 @@
+///usr/bin/env jbang "$0" "$@" ; exit $?
+//JAVA 25+
+//DEPS org.openjdk.jmh:jmh-core:1.37
+//DEPS org.openjdk.jmh:jmh-generator-annprocess:1.37
+//JAVAC_OPTIONS -proc:full
+//SOURCES ../Lab.java
+package perf.concurrency;
+
+import org.openjdk.jmh.annotations.*;
+import perf.Lab;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/// Benchmark: virtual-threads
+/// Source: content/concurrency/virtual-threads.yaml
+///
+/// Each invocation starts {@code threads} threads, each running the snippet's
+/// task, and joins them. The task bumps a counter instead of printing "hello".
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class VirtualThreads {
+
+    @Param({"1", "100", "10000"})
+    int threads;
+
+    final LongAdder counter = new LongAdder();
+
+    @Benchmark
+    public long oldCode() throws InterruptedException {
+        var started = new Thread[threads];
+        for (int i = 0; i < threads; i++) {
+            Thread thread = new Thread(() -> {
+                counter.increment();
+            });
+            thread.start();
+            started[i] = thread;
+        }
+        for (var thread : started) thread.join();
+        return counter.sum();
+    }
+
+    @Benchmark
+    public long modernCode() throws InterruptedException {
+        var started = new Thread[threads];
+        for (int i = 0; i < threads; i++) {
+            started[i] = Thread.startVirtualThread(() -> {
+                counter.increment();
+            });
+        }
+        for (var thread : started) thread.join();
+        return counter.sum();
+    }
+
+    public static void main(String[] args) throws Exception {
+        Lab.run(VirtualThreads.class, args);
+    }
+}
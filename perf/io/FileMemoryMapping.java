@@ -0,0 +1,87 @@
+///usr/bin/env jbang "$0" "$@" ; exit $?
+//JAVA 25+
+//DEPS org.openjdk.jmh:jmh-core:1.37
+//DEPS org.openjdk.jmh:jmh-generator-annprocess:1.37
+//JAVAC_OPTIONS -proc:full
+//SOURCES ../Lab.java
+package perf.io;
+
+import org.openjdk.jmh.annotations.*;
+import perf.Lab;
+
+import java.io.IOException;
+import java.lang.foreign.*;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.concurrent.TimeUnit;
+
+/// Benchmark: file-memory-mapping
+/// Source: content/io/file-memory-mapping.yaml
+///
+/// Each invocation maps a file of {@code size} bytes and sums it as longs, so
+/// the mapping is actually touched. The old variant leaves unmapping to the GC;
+/// the modern one unmaps when the arena closes.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FileMemoryMapping {
+
+    @Param({"4096", "1048576", "67108864"})
+    int size;
+
+    Path path;
+
+    @Setup
+    public void setup() throws IOException {
+        path = Files.createTempFile("perf-mmap", ".dat");
+        Files.write(path, new byte[size]);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(path);
+    }
+
+    @Benchmark
+    public long oldCode() throws IOException {
+        try (FileChannel channel =
+            FileChannel.open(path,
+                StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            MappedByteBuffer buffer =
+                channel.map(
+                    FileChannel.MapMode.READ_WRITE,
+                    0, (int) channel.size());
+            long sum = 0;
+            for (int i = 0; i + Long.BYTES <= buffer.limit(); i += Long.BYTES) sum += buffer.getLong(i);
+            return sum;
+        }
+    }
+
+    @Benchmark
+    public long modernCode() throws IOException {
+        FileChannel channel =
+            FileChannel.open(path,
+                StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        try (channel; Arena arena = Arena.ofShared()) {
+            MemorySegment segment =
+                channel.map(
+                    FileChannel.MapMode.READ_WRITE,
+                    0, channel.size(), arena);
+            long sum = 0;
+            for (long i = 0; i + Long.BYTES <= segment.byteSize(); i += Long.BYTES) {
+                sum += segment.get(ValueLayout.JAVA_LONG_UNALIGNED, i);
+            }
+            return sum;
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        Lab.run(FileMemoryMapping.class, args);
+    }
+}
@@ -0,0 +1,72 @@
+///usr/bin/env jbang "$0" "$@" ; exit $?
+//JAVA 25+
+//DEPS org.openjdk.jmh:jmh-core:1.37
+//DEPS org.openjdk.jmh:jmh-generator-annprocess:1.37
+//JAVAC_OPTIONS -proc:full
+//SOURCES ../Lab.java
+package perf.language;
+
+import org.openjdk.jmh.annotations.*;
+import perf.Lab;
+
+import java.util.concurrent.TimeUnit;
+
+/// Benchmark: text-blocks-for-multiline-strings
+/// Source: content/language/text-blocks-for-multiline-strings.yaml
+///
+/// javac folds both the concatenated literals and the text block into a single
+/// constant, so the two variants should measure the same: a text block costs
+/// nothing at run time. The {@code interpolated} variant covers the common case
+/// of mixing a runtime value in, where the old code concatenates and the text
+/// block is filled in with formatted().
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TextBlocksForMultilineStrings {
+
+    @Param({"constant", "interpolated"})
+    String variant;
+
+    String name = "Duke";
+
+    @Benchmark
+    public String oldCode() {
+        if (variant.equals("constant")) {
+            String json = "{\n" +
+                "  \"name\": \"Duke\",\n" +
+                "  \"age\": 30\n" +
+                "}";
+            return json;
+        }
+        String json = "{\n" +
+            "  \"name\": \"" + name + "\",\n" +
+            "  \"age\": 30\n" +
+            "}";
+        return json;
+    }
+
+    @Benchmark
+    public String modernCode() {
+        if (variant.equals("constant")) {
+            String json = """
+                {
+                  "name": "Duke",
+                  "age": 30
+                }""";
+            return json;
+        }
+        String json = """
+            {
+              "name": "%s",
+              "age": 30
+            }""".formatted(name);
+        return json;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Lab.run(TextBlocksForMultilineStrings.class, args);
+    }
+}
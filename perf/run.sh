@@ -0,0 +1,54 @@
+#!/usr/bin/env bash
+# Run the old-vs-modern JMH benchmarks under perf/ and write JMH JSON results
+# to perf/results/<category>/<slug>.json. With --alloc, record JFR allocation
+# profiles to <slug>.alloc.json instead.
+#
+# Usage:
+#   ./perf/run.sh                             # every benchmark
+#   ./perf/run.sh streams io                  # only paths containing "streams" or "io"
+#   ./perf/run.sh -- -p size=100 -f 3         # extra JMH options for every benchmark
+#   ./perf/run.sh --java 26 --results /tmp/perf-jdk26
+#   ./perf/run.sh --alloc streams strings collections
+
+set -euo pipefail
+cd "$(git rev-parse --show-toplevel)"
+
+RESULTS="perf/results"
+JAVA_ARGS=()
+FILTERS=()
+JMH_ARGS=()
+MODE_ARGS=()
+
+while [[ $# -gt 0 ]]; do
+  case "$1" in
+    --java)    JAVA_ARGS=(--java "$2"); shift 2 ;;
+    --results) RESULTS="$2"; shift 2 ;;
+    --alloc)   MODE_ARGS=(--alloc); shift ;;
+    --)        shift; JMH_ARGS=("$@"); break ;;
+    *)         FILTERS+=("$1"); shift ;;
+  esac
+done
+
+passed=0
+failed=()
+while IFS= read -r -d '' bench; do
+  name="${bench#perf/}"
+  if [[ ${#FILTERS[@]} -gt 0 ]]; then
+    match=false
+    for f in "${FILTERS[@]}"; do [[ "$name" == *"$f"* ]] && match=true; done
+    $match || continue
+  fi
+  echo "=== $name"
+  if jbang ${JAVA_ARGS[@]+"${JAVA_ARGS[@]}"} -Dperf.results="$RESULTS" "$bench" ${MODE_ARGS[@]+"${MODE_ARGS[@]}"} ${JMH_ARGS[@]+"${JMH_ARGS[@]}"}; then
+    passed=$((passed + 1))
+  else
+    failed+=("$name")
+  fi
+done < <(find perf -mindepth 2 -name '*.java' -print0 | sort -z)
+
+echo ""
+echo "Benchmarks: $passed completed, ${#failed[@]} failed"
+if [[ ${#failed[@]} -gt 0 ]]; then
+  printf '  - %s\n' "${failed[@]}"
+  exit 1
+fi
@@ -0,0 +1,59 @@
+///usr/bin/env jbang "$0" "$@" ; exit $?
+//JAVA 25+
+//DEPS org.openjdk.jmh:jmh-core:1.37
+//DEPS org.openjdk.jmh:jmh-generator-annprocess:1.37
+//JAVAC_OPTIONS -proc:full
+//SOURCES ../Lab.java
+package perf.streams;
+
+import org.openjdk.jmh.annotations.*;
+import perf.Lab;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.*;
+
+/// Benchmark: stream-gatherers
+/// Source: content/streams/stream-gatherers.yaml
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StreamGatherers {
+
+    @Param({"100", "10000", "1000000"})
+    int size;
+
+    List<Integer> list;
+
+    @Setup
+    public void setup() {
+        list = IntStream.range(0, size).boxed().toList();
+    }
+
+    @Benchmark
+    public List<List<Integer>> oldCode() {
+        List<List<Integer>> windows = new ArrayList<>();
+        for (int i = 0; i <= list.size() - 3; i++) {
+            windows.add(
+                list.subList(i, i + 3));
+        }
+        return windows;
+    }
+
+    @Benchmark
+    public List<List<Integer>> modernCode() {
+        var windows = list.stream()
+            .gather(
+                Gatherers.windowSliding(3)
+            )
+            .toList();
+        return windows;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Lab.run(StreamGatherers.class, args);
+    }
+}
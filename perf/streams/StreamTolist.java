@@ -0,0 +1,56 @@
+///usr/bin/env jbang "$0" "$@" ; exit $?
+//JAVA 25+
+//DEPS org.openjdk.jmh:jmh-core:1.37
+//DEPS org.openjdk.jmh:jmh-generator-annprocess:1.37
+//JAVAC_OPTIONS -proc:full
+//SOURCES ../Lab.java
+package perf.streams;
+
+import org.openjdk.jmh.annotations.*;
+import perf.Lab;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.*;
+
+/// Benchmark: stream-tolist
+/// Source: content/streams/stream-tolist.yaml
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StreamTolist {
+
+    @Param({"100", "10000", "1000000"})
+    int size;
+
+    List<String> source;
+
+    @Setup
+    public void setup() {
+        // Alternating short and long strings so the filter keeps about half
+        source = IntStream.range(0, size).mapToObj(i -> i % 2 == 0 ? "ab" : "item" + i).toList();
+    }
+
+    @Benchmark
+    public List<String> oldCode() {
+        List<String> result = source.stream()
+            .filter(s -> s.length() > 3)
+            .collect(Collectors.toList());
+        return result;
+    }
+
+    @Benchmark
+    public List<String> modernCode() {
+        List<String> result = source.stream()
+            .filter(s -> s.length() > 3)
+            .toList();
+        return result;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Lab.run(StreamTolist.class, args);
+    }
+}
@@ -0,0 +1,46 @@
+///usr/bin/env jbang "$0" "$@" ; exit $?
+//JAVA 25+
+//DEPS org.openjdk.jmh:jmh-core:1.37
+//DEPS org.openjdk.jmh:jmh-generator-annprocess:1.37
+//JAVAC_OPTIONS -proc:full
+//SOURCES ../Lab.java
+package perf.strings;
+
+import org.openjdk.jmh.annotations.*;
+import perf.Lab;
+
+import java.util.concurrent.TimeUnit;
+
+/// Benchmark: string-repeat
+/// Source: content/strings/string-repeat.yaml
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StringRepeat {
+
+    @Param({"3", "100", "10000"})
+    int count;
+
+    @Benchmark
+    public String oldCode() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            sb.append("abc");
+        }
+        String result = sb.toString();
+        return result;
+    }
+
+    @Benchmark
+    public String modernCode() {
+        String result = "abc".repeat(count);
+        return result;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Lab.run(StringRepeat.class, args);
+    }
+}
@@ -203,8 +203,28 @@
      ========================================================== */
   const initFilters = () => {
     const pills = document.querySelectorAll('.filter-pill');
-    const cards = document.querySelectorAll('.tip-card');
-    if (!pills.length || !cards.length) return;
+    if (!pills.length || !document.querySelector('.tip-card')) return;
+
+    let showAll = false;
+    let showCategory = null;
+
+    // Cards are passed in on every filter because chunks add more cards to the grid later
+    const filterCards = (cards) => {
+      cards.forEach(card => {
+        if (showAll || card.dataset.category === showCategory) {
+          card.classList.remove('filter-hidden');
+        } else {
+          card.classList.add('filter-hidden');
+        }
+      });
+    };
+
+    document.addEventListener('cardsadded', (e) => {
+      filterCards(e.detail);
+      if (window.updateViewToggleState) {
+        window.updateViewToggleState();
+      }
+    });
 
     pills.forEach(pill => {
       pill.addEventListener('click', () => {
@@ -215,17 +235,12 @@
         pills.forEach(p => p.classList.remove('active'));
         if (!wasActive) pill.classList.add('active');
 
-        const showAll = (!wasActive && category === 'all');
-        const showCategory = (!wasActive && category !== 'all') ? category : null;
+        showAll = (!wasActive && category === 'all');
+        showCategory = (!wasActive && category !== 'all') ? category : null;
 
-        // Filter cards
-        cards.forEach(card => {
-          if (showAll || card.dataset.category === showCategory) {
-            card.classList.remove('filter-hidden');
-          } else {
-            card.classList.add('filter-hidden');
-          }
-        });
+        // Filter cards, fetching the selected category's remaining cards if they aren't loaded yet
+        filterCards(document.querySelectorAll('.tip-card'));
+        if (showCategory) loadCardChunks(`.card-chunk[data-category="${showCategory}"]`);
 
         // Update URL hash to reflect active filter
         const activeFilter = pill.classList.contains('active') ? category : null;
@@ -267,19 +282,80 @@
     });
   };
 
+  /* ==========================================================
+     2b. Card Chunks (homepage)
+     Only the first screen of cards is in index.html. The rest are
+     in data/cards/{category}.html, fetched into their placeholder
+     when the category is selected or the grid end comes into view.
+     ========================================================== */
+  const loadCardChunk = (placeholder) => {
+    if (!placeholder.loading) {
+      placeholder.loading = fetch(placeholder.dataset.src)
+        .then(res => {
+          if (!res.ok) throw new Error(res.status + ' ' + res.statusText);
+          return res.text();
+        })
+        .then(html => {
+          const tpl = document.createElement('template');
+          tpl.innerHTML = html;
+          const cards = Array.from(tpl.content.querySelectorAll('.tip-card'));
+          placeholder.replaceWith(tpl.content);
+          document.dispatchEvent(new CustomEvent('cardsadded', { detail: cards }));
+        })
+        .catch(e => {
+          placeholder.loading = null;
+          console.warn('Could not load cards from ' + placeholder.dataset.src + ':', e);
+        });
+    }
+    return placeholder.loading;
+  };
+
+  const loadCardChunks = (selector) =>
+    Promise.all(Array.from(document.querySelectorAll(selector)).map(loadCardChunk));
+
+  const initCardChunks = () => {
+    const tipsGrid = document.getElementById('tipsGrid');
+    if (!tipsGrid || !tipsGrid.querySelector('.card-chunk')) return;
+
+    // Cards added later need the same treatment as the ones in the page
+    document.addEventListener('cardsadded', (e) => {
+      initCardToggle(e.detail);
+      initSyntaxHighlighting();
+    });
+
+    // Fetch all remaining chunks once the reader scrolls near the end of the grid
+    const sentinel = document.createElement('div');
+    tipsGrid.after(sentinel);
+    let observer = null;
+    const load = () => loadCardChunks('.card-chunk').then(() => {
+      if (!tipsGrid.querySelector('.card-chunk')) {
+        if (observer) observer.disconnect();
+        sentinel.remove();
+      }
+    });
+    if ('IntersectionObserver' in window) {
+      observer = new IntersectionObserver(entries => {
+        if (entries.some(e => e.isIntersecting)) load();
+      }, { rootMargin: '600px 0px' });
+      observer.observe(sentinel);
+    } else {
+      load();
+    }
+  };
+
   /* ==========================================================
      3. Card Hover / Touch Toggle (homepage)
      ========================================================== */
-  const initCardToggle = () => {
+  const initCardToggle = (cards = document.querySelectorAll('.tip-card')) => {
     const isTouchDevice = 'ontouchstart' in window || navigator.maxTouchPoints > 0;
     if (!isTouchDevice) return;
 
-    // Update hover hints for touch devices
-    document.querySelectorAll('.hover-hint').forEach(hint => {
-      hint.textContent = (window.i18n && window.i18n.touchHint) || '👆 tap or swipe →';
-    });
+    cards.forEach(card => {
+      // Update hover hints for touch devices
+      card.querySelectorAll('.hover-hint').forEach(hint => {
+        hint.textContent = (window.i18n && window.i18n.touchHint) || '👆 tap or swipe →';
+      });
 
-    document.querySelectorAll('.tip-card').forEach(card => {
       let touchStartX = 0;
       let touchStartY = 0;
       let touchEndX = 0;
@@ -729,6 +805,70 @@
     });
   };
 
+  /* ==========================================================
+     10. Service Worker
+     ========================================================== */
+  const registerServiceWorker = () => {
+    if (!('serviceWorker' in navigator)) return;
+    // Each locale has its own worker, which precaches that locale's home page and search data
+    window.addEventListener('load', () => {
+      navigator.serviceWorker.register(localePrefix + '/sw.js', { scope: localePrefix + '/' })
+        .catch((e) => console.warn('Could not register service worker:', e));
+    });
+  };
+
+  /* ==========================================================
+     11. Prefetch
+     ========================================================== */
+  const HOVER_PREFETCH_DELAY_MS = 65;
+  const prefetched = new Set([location.pathname]);
+
+  const prefetch = (url) => {
+    if (prefetched.has(url) || navigator.connection?.saveData) return;
+    prefetched.add(url);
+    const link = document.createElement('link');
+    link.rel = 'prefetch';
+    link.href = url;
+    document.head.appendChild(link);
+  };
+
+  const initPrefetch = async () => {
+    let graph;
+    try {
+      const res = await fetch('/data/nav-graph.json');
+      if (!res.ok) return;
+      graph = await res.json();
+    } catch (e) {
+      return;
+    }
+
+    // "/de/streams/stream-tolist.html" -> "streams/stream-tolist" if it is a pattern page
+    const pageKey = (pathname) => {
+      if (!pathname.startsWith(localePrefix + '/') || !pathname.endsWith('.html')) return null;
+      const key = pathname.slice(localePrefix.length + 1, -'.html'.length);
+      return key in graph.pages ? key : null;
+    };
+
+    // Detail pages carry speculation rules for their neighbours; other browsers get plain prefetches
+    const neighbours = graph.pages[pageKey(location.pathname)];
+    const speculationRules = HTMLScriptElement.supports?.('speculationrules');
+    if (neighbours && !speculationRules) {
+      neighbours.forEach((key) => prefetch(localePrefix + '/' + key + '.html'));
+    }
+
+    // Hovering or focusing a pattern link briefly fetches it before the click
+    let timer;
+    const onIntent = (e) => {
+      const link = e.target.closest?.('a[href]');
+      if (!link || link.origin !== location.origin || !pageKey(link.pathname)) return;
+      clearTimeout(timer);
+      timer = setTimeout(() => prefetch(link.pathname), e.type === 'focusin' ? 0 : HOVER_PREFETCH_DELAY_MS);
+    };
+    document.addEventListener('pointerover', onIntent, { passive: true });
+    document.addEventListener('pointerout', () => clearTimeout(timer), { passive: true });
+    document.addEventListener('focusin', onIntent);
+  };
+
   /* ==========================================================
      Utilities
      ========================================================== */
@@ -746,6 +886,7 @@
       initSearch();
     });
     initFilters();
+    initCardChunks();
     initCardToggle();
     initViewToggle();
     initCopyButtons();
@@ -754,5 +895,7 @@
     initThemeToggle();
     initLocalePicker();
     initContributeDropdown();
+    registerServiceWorker();
+    initPrefetch();
   });
 })();
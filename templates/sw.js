@@ -0,0 +1,74 @@
+/* ===========================
+   java.evolved — service worker for {{scope}}
+   Generated from templates/sw.js by html-generators/generate.java
+   =========================== */
+'use strict';
+
+const CACHE_PREFIX = 'java-evolved-{{locale}}-';
+const PRECACHE = CACHE_PREFIX + '{{precacheHash}}';
+const RUNTIME = CACHE_PREFIX + 'runtime';
+const SCOPE = '{{scope}}';
+
+// Every URL with a hash of its content: this file changes only when one of them does
+const PRECACHE_MANIFEST = [
+{{precacheManifest}}
+];
+const PRECACHED = new Set(PRECACHE_MANIFEST.map((entry) => entry.url));
+
+self.addEventListener('install', (event) => {
+  event.waitUntil(
+    caches.open(PRECACHE)
+      .then((cache) => Promise.all(PRECACHE_MANIFEST.map(async ({ url, revision }) => {
+        // The revision in the query string gets past stale HTTP caches on the way
+        const response = await fetch(url + '?__rev=' + revision, { cache: 'no-cache' });
+        if (!response.ok) throw new Error('Could not precache ' + url + ': ' + response.status);
+        await cache.put(url, response);
+      })))
+      .then(() => self.skipWaiting())
+  );
+});
+
+self.addEventListener('activate', (event) => {
+  event.waitUntil(
+    caches.keys()
+      .then((keys) => Promise.all(keys
+        .filter((key) => key.startsWith(CACHE_PREFIX) && key !== PRECACHE && key !== RUNTIME)
+        .map((key) => caches.delete(key))))
+      .then(() => self.clients.claim())
+  );
+});
+
+/* Answer from the cache at once and refresh the copy in the background */
+const staleWhileRevalidate = async (event) => {
+  const cache = await caches.open(RUNTIME);
+  const cached = await cache.match(event.request);
+  const network = fetch(event.request).then((response) => {
+    if (response.ok) cache.put(event.request, response.clone());
+    return response;
+  });
+  if (cached) {
+    event.waitUntil(network.catch(() => {}));
+    return cached;
+  }
+  try {
+    return await network;
+  } catch (e) {
+    // Offline on a page never visited: fall back to the home page
+    const home = event.request.mode === 'navigate' && await caches.match(SCOPE);
+    if (home) return home;
+    throw e;
+  }
+};
+
+self.addEventListener('fetch', (event) => {
+  const request = event.request;
+  const url = new URL(request.url);
+  if (request.method !== 'GET' || url.origin !== location.origin) return;
+  // Pages request shared assets outside the scope too, e.g. /styles.css from /de/
+  if (PRECACHED.has(url.pathname) && !url.search) {
+    event.respondWith(caches.match(url.pathname, { cacheName: PRECACHE })
+      .then((cached) => cached || fetch(request)));
+  } else if (url.pathname.startsWith(SCOPE)) {
+    event.respondWith(staleWhileRevalidate(event));
+  }
+});